@@ -9,8 +9,9 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 /**
@@ -23,7 +24,17 @@ import java.util.stream.Stream;
  *
  */
 public class BaseDataProviders {
-	private static Random randGen = new Random();
+	// Les listes ci-dessous sont initialisées et lues sous le verrou de la
+	// classe, et chaque flot est construit sur une copie: les fournisseurs
+	// peuvent être appelés par des tests exécutés en parallèle.
+	// Graine fixée par -Dtest.graine=... pour reproduire une exécution:
+	private static long graine = Long.getLong("test.graine", System.nanoTime());
+	// Générateur des méthodes randInt, randBool, etc. du thread courant. Il
+	// est réinitialisé à partir de la graine par chaque fournisseur de
+	// données et, avant chaque test, par RapportGraine: les valeurs tirées ne
+	// dépendent pas de l'ordre d'exécution des tests en parallèle.
+	private static ThreadLocal<SplittableRandom> randGen = ThreadLocal
+			.withInitial(() -> new SplittableRandom(graine));
 	private static List<Object> objectInstances = Arrays.asList(null, new Object(), "abc", 1);
 	private static List<Collection<Object>> lCollObj = new ArrayList<Collection<Object>>();
 	private static List<String> stringInstances = Arrays.asList(null, "", "abc", "Abjh45", "ch1", "5662", "ch2", "ch3",
@@ -37,14 +48,15 @@ public class BaseDataProviders {
 		if (!lTabInt.isEmpty()) {
 			return;
 		}
+		SplittableRandom rand = new SplittableRandom(graine ^ "tabInt".hashCode());
 		lTabInt.add(null);
 		lTabInt.add(new int[0]);
 		for (int i = 0; i < (intStreamSize*2); i++) {
-			int size = randInt(30);
+			int size = rand.nextInt(30);
 			int[] tab = new int[size];
-			int nbElements = (size > 0 ? randInt(size) : 0);
+			int nbElements = (size > 0 ? rand.nextInt(size) : 0);
 			for (int j = 0; j < nbElements; j++) {
-				tab[j] = randGen.nextInt();
+				tab[j] = rand.nextInt();
 			}
 			lTabInt.add(tab);
 		}
@@ -54,11 +66,12 @@ public class BaseDataProviders {
 		if (!lCollObj.isEmpty()) {
 			return;
 		}
+		SplittableRandom rand = new SplittableRandom(graine ^ "collObj".hashCode());
 		lCollObj.add(null);
 		lCollObj.add(Collections.emptyList());
 		for (int i = 0; i < objectInstances.size(); i++) {
-			List<Object> lobj = randomSubList(objectInstances);
-			if (randBool()) {
+			List<Object> lobj = randomSubList(rand, objectInstances);
+			if (rand.nextBoolean()) {
 				lCollObj.add(lobj);
 			} else {
 				lCollObj.add(new HashSet<Object>(lobj));
@@ -76,14 +89,16 @@ public class BaseDataProviders {
 			return;
 		}
 		int nbCreated = lCollStr.size();
+		// Les collections déjà créées ne dépendent pas de nbColl:
+		SplittableRandom rand = new SplittableRandom(graine ^ ("collStr" + nbCreated).hashCode());
 		if (lCollStr.isEmpty()) {
 			lCollStr.add(Collections.emptyList());
 			lCollStr.add(null);
 			nbCreated += 2;
 		}
 		while (nbCreated < nbColl) {
-			List<String> list = randomSubList(stringInstances);
-			if (randBool()) {
+			List<String> list = randomSubList(rand, stringInstances);
+			if (rand.nextBoolean()) {
 				lCollStr.add(list);
 			} else {
 				lCollStr.add(new HashSet<String>(list));
@@ -92,33 +107,79 @@ public class BaseDataProviders {
 		}
 	}
 
-	public static Stream<int[]> tabIntProvider() {
+	/**
+	 * @return la graine de tous les générateurs aléatoires de cette classe, à
+	 *         passer par -Dtest.graine=... pour reproduire une exécution.
+	 */
+	public static long getGraine() {
+		return graine;
+	}
+
+	/**
+	 * Remplace le générateur des méthodes randInt, randBool, etc. du thread
+	 * courant.
+	 *
+	 * @param rand le nouveau générateur
+	 * @return le générateur remplacé
+	 */
+	static SplittableRandom setGenerateur(SplittableRandom rand) {
+		SplittableRandom precedent = randGen.get();
+		randGen.set(rand);
+		return precedent;
+	}
+
+	/**
+	 * Renvoie le générateur propre au fournisseur spécifié, dérivé de la graine,
+	 * et réinitialise à partir de celui-ci le générateur du thread courant
+	 * utilisé par les fonctions de transformation du flot produit.
+	 */
+	private static SplittableRandom fournisseur(String id) {
+		SplittableRandom rand = new SplittableRandom(graine ^ id.hashCode());
+		randGen.set(rand.split());
+		return rand;
+	}
+
+	/**
+	 * Traces d'opérations reproductibles pour des piles de grande taille.
+	 * 
+	 * @requires nbTraces >= 0;
+	 * @requires tailleMax > 0;
+	 * 
+	 * @param nbTraces  le nombre de traces
+	 * @param tailleMax la plus grande taille atteinte par une trace
+	 * @return nbTraces traces produites à la demande
+	 * @see GenerateurTraces
+	 */
+	public static Stream<LongStream> traceProvider(int nbTraces, int tailleMax) {
+		return new GenerateurTraces(graine, 1, tailleMax).traces(nbTraces);
+	}
+
+	public static synchronized Stream<int[]> tabIntProvider() {
+		fournisseur("tabIntProvider");
 		initTabInt();
-		return lTabInt.stream();
+		return new ArrayList<int[]>(lTabInt).stream();
 	}
-	public static Stream<Collection<String>> collStringProvider(int streamSize) {
+	public static synchronized Stream<Collection<String>> collStringProvider(int streamSize) {
+		fournisseur("collStringProvider");
 		initLCollStr(streamSize);
 		if (streamSize < lCollStr.size()) {
-			return lCollStr.subList(0, streamSize).stream();
+			return new ArrayList<Collection<String>>(lCollStr.subList(0, streamSize)).stream();
 		}
-		return lCollStr.stream();
+		return new ArrayList<Collection<String>>(lCollStr).stream();
 	}
 
-	public static Stream<Collection<String>> collStringProvider() {
-		initLCollStr(collStrStreamSize);
-		if (collStrStreamSize < lCollStr.size()) {
-			return lCollStr.subList(0, collStrStreamSize).stream();
-		}
-		return lCollStr.stream();
+	public static synchronized Stream<Collection<String>> collStringProvider() {
+		return collStringProvider(collStrStreamSize);
 	}
 
-	public static Stream<Collection<? extends Object>> collObjProvider() {
+	public static synchronized Stream<Collection<? extends Object>> collObjProvider() {
+		fournisseur("collObjProvider");
 		initCollObj();
-		return Stream.concat(lCollObj.stream(), collStringProvider()) ;
+		return Stream.concat(new ArrayList<Collection<Object>>(lCollObj).stream(), collStringProvider()) ;
 	}
 	
 	public static boolean randBool() {
-		return randGen.nextBoolean();
+		return randGen.get().nextBoolean();
 	}
 
 	/**
@@ -133,7 +194,7 @@ public class BaseDataProviders {
 	 * @throws IllegalArgumentException si max <= 0
 	 */
 	public static int randInt(int max) {
-		return randGen.nextInt(max);
+		return randGen.get().nextInt(max);
 	}
 
 	/**
@@ -148,11 +209,15 @@ public class BaseDataProviders {
 	 * @return
 	 */
 	public static <T> List<T> randomSubList(List<T> l) {
+		return randomSubList(randGen.get(), l);
+	}
+
+	private static <T> List<T> randomSubList(SplittableRandom rand, List<T> l) {
 		if (l.isEmpty()) {
 			return Collections.emptyList();
 		}
-		int upper = randGen.nextInt(l.size());
-		int lower = randGen.nextInt(upper + 1);
+		int upper = rand.nextInt(l.size());
+		int lower = rand.nextInt(upper + 1);
 		return l.subList(lower, upper);
 	}
 
@@ -167,7 +232,7 @@ public class BaseDataProviders {
 	 * @return
 	 */
 	public static <T> T getRandomElt(List<T> l) {
-		int index = randGen.nextInt(l.size());
+		int index = randGen.get().nextInt(l.size());
 		return l.get(index);
 	}
 
@@ -182,7 +247,7 @@ public class BaseDataProviders {
 	 * @return
 	 */
 	public static <T> T getRandomElt(Collection<T> c) {
-		int index = randGen.nextInt(c.size());
+		int index = randGen.get().nextInt(c.size());
 		int i = 0;
 		for (T elt : c) {
 			if (i == index) {
@@ -204,7 +269,7 @@ public class BaseDataProviders {
 	 * @return
 	 */
 	public static <T> T getRandomElt(T[] tab) {
-		int index = randGen.nextInt(tab.length);
+		int index = randGen.get().nextInt(tab.length);
 		return tab[index];
 	}
 
@@ -224,11 +289,11 @@ public class BaseDataProviders {
 	}
 
 	public static IntStream intProvider() {
-		return randGen.ints(intStreamSize);
+		return fournisseur("intProvider").ints(intStreamSize);
 	}
 
 	public static IntStream intProvider(int min, int max) {
-		return randGen.ints(intStreamSize, min, max);
+		return fournisseur("intProvider(" + min + "," + max + ")").ints(intStreamSize, min, max);
 	}
 
 	public static Stream<Integer> intergerProvider() {
@@ -0,0 +1,267 @@
+package pilesimple;
+
+/**
+ * Cache d'internement d'instantanés de piles : pour des piles de même contenu
+ * (au sens de <code>equals</code>), {@link #interner(PileInt)} renvoie toujours
+ * le même instantané immuable, partagé par tous les appelants. Le cache
+ * contient au plus nbMaxEntrees instantanés ; au-delà, le moins récemment
+ * utilisé est oublié (LRU).
+ *
+ * Le code de hachage d'une <code>PileInt</code>, proportionnel à son nombre
+ * d'éléments, est calculé une seule fois par appel et hors du verrou du
+ * cache ; celui d'un instantané est précalculé. La comparaison élément par
+ * élément n'a lieu qu'entre piles de même code de hachage.
+ *
+ * Le cache compte les requêtes et les succès, et estime la mémoire économisée
+ * par les succès : chaque succès évite de conserver une copie de la pile.
+ *
+ * Les méthodes peuvent être appelées par plusieurs threads ; une pile passée
+ * à <code>interner</code> ne doit pas être modifiée pendant l'appel.
+ *
+ * @author Marc Champesme
+ * @version 1.8.0
+ * @invariant getNbEntrees() <= getNbMaxEntrees();
+ * @invariant getNbSucces() <= getNbRequetes();
+ */
+public class CachePileInt {
+	/**
+	 * Estimation de la taille d'un instantané hors éléments : en-têtes de
+	 * l'objet et de son tableau, avec références compressées.
+	 */
+	private static final long OCTETS_PAR_INSTANTANE = 40;
+
+	private final int nbMaxEntrees;
+	private final Entree[] seaux;
+	// Sentinelle de la liste des entrées, de la plus récemment utilisée
+	// (apres) à la moins récemment utilisée (avant):
+	private final Entree sentinelle = new Entree(null, 0);
+	private int nbEntrees;
+	private long nbRequetes;
+	private long nbSucces;
+	private long octetsEconomises;
+
+	private static final class Entree {
+		final PileIntFigee instantane;
+		final int hash;
+		// Entrée suivante du même seau:
+		Entree suivante;
+		Entree avant;
+		Entree apres;
+
+		Entree(PileIntFigee instantane, int hash) {
+			this.instantane = instantane;
+			this.hash = hash;
+			this.avant = this;
+			this.apres = this;
+		}
+	}
+
+	/**
+	 * Initialise un cache vide de capacité spécifiée.
+	 *
+	 * @param nbMaxEntrees le nombre maximal d'instantanés conservés
+	 *
+	 * @requires nbMaxEntrees > 0;
+	 * @requires nbMaxEntrees <= 1 << 29;
+	 * @ensures getNbEntrees() == 0;
+	 * @ensures getNbMaxEntrees() == nbMaxEntrees;
+	 */
+	public CachePileInt(int nbMaxEntrees) {
+		this.nbMaxEntrees = nbMaxEntrees;
+		// Puissance de 2, taux de remplissage au plus 3/4:
+		int nbSeaux = Integer.highestOneBit(Math.max(1, (nbMaxEntrees * 4 / 3) - 1)) << 1;
+		this.seaux = new Entree[nbSeaux];
+	}
+
+	/**
+	 * Renvoie l'instantané canonique de la pile spécifiée, créé et ajouté au
+	 * cache s'il n'y figure pas.
+	 *
+	 * @param p la pile à interner
+	 * @return l'instantané du cache de même contenu que p
+	 *
+	 * @requires p != null;
+	 * @ensures \result.estCopieDe(p);
+	 * @ensures getNbRequetes() == \old(getNbRequetes()) + 1;
+	 */
+	public PileIntFigee interner(PileInt p) {
+		int h = p.hashCode();
+		synchronized (this) {
+			nbRequetes++;
+			Entree e = chercher(h, p, null);
+			if (e != null) {
+				return succes(e);
+			}
+		}
+		// Copie hors du verrou, puis nouvelle recherche: un autre thread a pu
+		// ajouter la même pile entre-temps.
+		PileIntFigee copie = p.freeze();
+		synchronized (this) {
+			Entree e = chercher(h, null, copie);
+			return (e != null ? succes(e) : ajouter(copie));
+		}
+	}
+
+	/**
+	 * Renvoie l'instantané canonique de même contenu que l'instantané
+	 * spécifié, qui est ajouté au cache s'il n'y figure pas.
+	 *
+	 * @param f l'instantané à interner
+	 * @return l'instantané du cache égal à f
+	 *
+	 * @requires f != null;
+	 * @ensures \result.equals(f);
+	 * @ensures getNbRequetes() == \old(getNbRequetes()) + 1;
+	 */
+	public synchronized PileIntFigee interner(PileIntFigee f) {
+		nbRequetes++;
+		Entree e = chercher(f.hashCode(), null, f);
+		return (e != null ? succes(e) : ajouter(f));
+	}
+
+	/**
+	 * Consultation du nombre d'instantanés présents dans le cache.
+	 *
+	 * @return nombre d'instantanés du cache
+	 *
+	 * @pure
+	 */
+	public synchronized int getNbEntrees() {
+		return nbEntrees;
+	}
+
+	/**
+	 * Consultation du nombre maximal d'instantanés du cache.
+	 *
+	 * @return capacité du cache
+	 *
+	 * @pure
+	 */
+	public int getNbMaxEntrees() {
+		return nbMaxEntrees;
+	}
+
+	/**
+	 * Consultation du nombre d'appels de <code>interner</code>.
+	 *
+	 * @return nombre de requêtes depuis la création du cache
+	 *
+	 * @pure
+	 */
+	public synchronized long getNbRequetes() {
+		return nbRequetes;
+	}
+
+	/**
+	 * Consultation du nombre de requêtes ayant trouvé leur instantané dans le
+	 * cache.
+	 *
+	 * @return nombre de succès depuis la création du cache
+	 *
+	 * @pure
+	 */
+	public synchronized long getNbSucces() {
+		return nbSucces;
+	}
+
+	/**
+	 * Consultation de la proportion de requêtes ayant trouvé leur instantané
+	 * dans le cache.
+	 *
+	 * @return taux de succès entre 0 et 1, 0 si aucune requête
+	 *
+	 * @pure
+	 */
+	public synchronized double getTauxSucces() {
+		return (nbRequetes == 0 ? 0 : (double) nbSucces / nbRequetes);
+	}
+
+	/**
+	 * Estimation de la mémoire économisée : somme, pour chaque succès, de la
+	 * taille de la copie évitée.
+	 *
+	 * @return nombre d'octets économisés depuis la création du cache
+	 *
+	 * @pure
+	 */
+	public synchronized long getOctetsEconomises() {
+		return octetsEconomises;
+	}
+
+	/**
+	 * Renvoie une représentation de cette instance sous forme de chaîne de
+	 * caractère.
+	 *
+	 * @return une chaîne de caractères représentant cette instance.
+	 *
+	 * @pure
+	 */
+	public synchronized String toString() {
+		return String.format("CachePileInt(%d/%d): %d requêtes, succès %.1f %%, %d octets économisés", nbEntrees,
+				nbMaxEntrees, nbRequetes, 100 * getTauxSucces(), octetsEconomises);
+	}
+
+	private int indice(int h) {
+		return (h ^ (h >>> 16)) & (seaux.length - 1);
+	}
+
+	/**
+	 * Recherche l'entrée de même contenu que p, ou que f si p est null.
+	 */
+	private Entree chercher(int h, PileInt p, PileIntFigee f) {
+		for (Entree e = seaux[indice(h)]; e != null; e = e.suivante) {
+			if (e.hash == h && (p != null ? e.instantane.estCopieDe(p) : e.instantane.equals(f))) {
+				return e;
+			}
+		}
+		return null;
+	}
+
+	private PileIntFigee succes(Entree e) {
+		nbSucces++;
+		octetsEconomises += OCTETS_PAR_INSTANTANE + (long) Integer.BYTES * e.instantane.getNbElements();
+		detacher(e);
+		insererEnTete(e);
+		return e.instantane;
+	}
+
+	private PileIntFigee ajouter(PileIntFigee f) {
+		if (nbEntrees == nbMaxEntrees) {
+			retirer(sentinelle.avant);
+		}
+		Entree e = new Entree(f, f.hashCode());
+		int i = indice(e.hash);
+		e.suivante = seaux[i];
+		seaux[i] = e;
+		insererEnTete(e);
+		nbEntrees++;
+		return f;
+	}
+
+	private void retirer(Entree e) {
+		int i = indice(e.hash);
+		if (seaux[i] == e) {
+			seaux[i] = e.suivante;
+		} else {
+			Entree prec = seaux[i];
+			while (prec.suivante != e) {
+				prec = prec.suivante;
+			}
+			prec.suivante = e.suivante;
+		}
+		detacher(e);
+		nbEntrees--;
+	}
+
+	private void detacher(Entree e) {
+		e.avant.apres = e.apres;
+		e.apres.avant = e.avant;
+	}
+
+	private void insererEnTete(Entree e) {
+		e.apres = sentinelle.apres;
+		e.avant = sentinelle;
+		sentinelle.apres.avant = e;
+		sentinelle.apres = e;
+	}
+}
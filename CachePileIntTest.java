@@ -0,0 +1,160 @@
+/**
+ *
+ */
+package pilesimple.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import test.BaseDataProviders;
+import test.RapportGraine;
+
+import pilesimple.CachePileInt;
+import pilesimple.PileInt;
+import pilesimple.PileIntFigee;
+
+/**
+ * Tests unitaires pour les classes CachePileInt et PileIntFigee.
+ *
+ * @author Marc Champesme
+ * @version 1.8.0
+ *
+ */
+@ExtendWith(RapportGraine.class)
+class CachePileIntTest {
+	//////////////////////////////////////////////////
+	// Méthodes produisant les données de test:
+	//////////////////////////////////////////////////
+	public static IntStream intProvider() {
+		return BaseDataProviders.intProvider(1, 30);
+	}
+
+	public static IntStream capaciteProvider() {
+		// La capacité 1 est toujours testée:
+		return IntStream.concat(IntStream.of(1), intProvider());
+	}
+	//////////////////////////////////////////////////
+	// Fin des méthodes produisant les données de test
+	//////////////////////////////////////////////////
+
+	/**
+	 * Teste l'invariant de classe pour l'instance spécifiée.
+	 *
+	 * @param self l'instance à tester
+	 */
+	public void assertInvariant(CachePileInt self) {
+		assertTrue(self.getNbEntrees() <= self.getNbMaxEntrees());
+		assertTrue(self.getNbSucces() <= self.getNbRequetes());
+	}
+
+	private static PileInt pile(int nbMaxElements, int... elements) {
+		PileInt p = new PileInt(nbMaxElements);
+		for (int e : elements) {
+			p.empiler(e);
+		}
+		return p;
+	}
+
+	/**
+	 * Des piles égales donnent le même instantané, copie fidèle de la pile.
+	 */
+	@Test
+	public final void testInterner() {
+		CachePileInt self = new CachePileInt(10);
+		PileInt p = pile(5, 1, 2, 3);
+		PileIntFigee f = self.interner(p);
+		assertTrue(f.estCopieDe(p));
+		assertEquals(p.hashCode(), f.hashCode());
+		assertEquals(p.toString(), f.toString());
+		assertEquals(3, f.getSommet());
+		assertEquals(p, f.degeler());
+		assertSame(f, self.interner(pile(5, 1, 2, 3)));
+		assertSame(f, self.interner(f.degeler()));
+		assertSame(f, self.interner(new CachePileInt(1).interner(p)));
+		// Même contenu, capacité différente:
+		assertNotSame(f, self.interner(pile(6, 1, 2, 3)));
+		p.depiler();
+		assertNotSame(f, self.interner(p));
+		assertEquals(6, self.getNbRequetes());
+		assertEquals(3, self.getNbSucces());
+		assertEquals(3, self.getNbEntrees());
+		assertEquals(3 * (40 + 3 * Integer.BYTES), self.getOctetsEconomises());
+		assertEquals(0.5, self.getTauxSucces());
+		assertInvariant(self);
+	}
+
+	/**
+	 * Au-delà de sa capacité, le cache oublie l'instantané le moins récemment
+	 * utilisé.
+	 *
+	 * @param nbMaxEntrees la capacité du cache
+	 */
+	@ParameterizedTest
+	@MethodSource("capaciteProvider")
+	public final void testEvictionLru(int nbMaxEntrees) {
+		CachePileInt self = new CachePileInt(nbMaxEntrees);
+		List<PileIntFigee> instantanes = new ArrayList<PileIntFigee>();
+		for (int i = 0; i < nbMaxEntrees; i++) {
+			instantanes.add(self.interner(pile(2, i)));
+		}
+		// La pile 0 devient la plus récemment utilisée:
+		assertSame(instantanes.get(0), self.interner(pile(2, 0)));
+		self.interner(pile(2, -1));
+		assertEquals(nbMaxEntrees, self.getNbEntrees());
+		if (nbMaxEntrees > 1) {
+			assertSame(instantanes.get(0), self.interner(pile(2, 0)));
+			// La pile 1 était la moins récemment utilisée:
+			assertNotSame(instantanes.get(1), self.interner(pile(2, 1)));
+		} else {
+			// La pile -1 a pris la seule place:
+			assertNotSame(instantanes.get(0), self.interner(pile(2, 0)));
+		}
+		assertInvariant(self);
+	}
+
+	/**
+	 * Des piles aléatoires internées par plusieurs threads donnent un seul
+	 * instantané par contenu tant que le cache ne déborde pas.
+	 */
+	@Test
+	public final void testInternerConcurrent() throws InterruptedException {
+		CachePileInt self = new CachePileInt(1000);
+		int nbThreads = 4;
+		PileIntFigee[][] resultats = new PileIntFigee[nbThreads][500];
+		Thread[] threads = new Thread[nbThreads];
+		for (int t = 0; t < nbThreads; t++) {
+			PileIntFigee[] res = resultats[t];
+			threads[t] = new Thread(() -> {
+				SplittableRandom rand = new SplittableRandom(BaseDataProviders.getGraine());
+				for (int i = 0; i < res.length; i++) {
+					res[i] = self.interner(pile(10, rand.nextInt(20), rand.nextInt(20)));
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread th : threads) {
+			th.join();
+		}
+		for (int t = 1; t < nbThreads; t++) {
+			for (int i = 0; i < resultats[t].length; i++) {
+				assertSame(resultats[0][i], resultats[t][i]);
+			}
+		}
+		assertEquals(nbThreads * 500, self.getNbRequetes());
+		// Chaque instantané du cache a été créé par un échec:
+		assertTrue(self.getNbSucces() <= nbThreads * 500 - self.getNbEntrees());
+		assertInvariant(self);
+	}
+}
@@ -0,0 +1,103 @@
+package pilesimple;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Enregistre au format binaire compact de {@link TraceInt} les opérations
+ * effectuées sur une pile. Une instance n'est pas protégée contre les accès
+ * concurrents : elle doit être utilisée par le seul thread qui manipule la
+ * pile tracée. Les clones d'une pile tracée partagent son enregistreur et ne
+ * doivent donc pas être modifiés.
+ *
+ * @author Marc Champesme
+ * @version 1.8.0
+ * @see PileIntTracee
+ */
+public class EnregistreurTrace implements Closeable, Flushable {
+	private final DataOutputStream out;
+
+	/**
+	 * Initialise un enregistreur écrivant dans le flux spécifié.
+	 *
+	 * @param out           le flux dans lequel écrire la trace
+	 * @param nbMaxElements la capacité de la pile tracée
+	 *
+	 * @requires out != null;
+	 *
+	 * @throws IOException en cas d'erreur d'écriture de l'en-tête
+	 */
+	public EnregistreurTrace(OutputStream out, int nbMaxElements) throws IOException {
+		this.out = new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+		this.out.writeInt(TraceInt.MAGIQUE);
+		this.out.writeInt(nbMaxElements);
+	}
+
+	/**
+	 * Enregistre une opération codée.
+	 *
+	 * @param operation l'opération codée
+	 *
+	 * @throws IOException en cas d'erreur d'écriture
+	 * @see TraceInt#operation(int, int)
+	 */
+	public void enregistrer(long operation) throws IOException {
+		int code = TraceInt.code(operation);
+		out.write(code);
+		if (code == TraceInt.EMPILER) {
+			TraceInt.ecrireVarInt(out, TraceInt.valeur(operation));
+		}
+	}
+
+	/**
+	 * Enregistre un ajout.
+	 *
+	 * @param e l'élément empilé
+	 *
+	 * @throws IOException en cas d'erreur d'écriture
+	 */
+	public void empiler(int e) throws IOException {
+		out.write(TraceInt.EMPILER);
+		TraceInt.ecrireVarInt(out, e);
+	}
+
+	/**
+	 * Enregistre un retrait.
+	 *
+	 * @throws IOException en cas d'erreur d'écriture
+	 */
+	public void depiler() throws IOException {
+		out.write(TraceInt.DEPILER);
+	}
+
+	/**
+	 * Enregistre une consultation du sommet.
+	 *
+	 * @throws IOException en cas d'erreur d'écriture
+	 */
+	public void sommet() throws IOException {
+		out.write(TraceInt.SOMMET);
+	}
+
+	/**
+	 * Écrit les opérations bufferisées.
+	 *
+	 * @throws IOException en cas d'erreur d'écriture
+	 */
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	/**
+	 * Écrit les opérations bufferisées puis ferme le flux.
+	 *
+	 * @throws IOException en cas d'erreur d'écriture
+	 */
+	public void close() throws IOException {
+		out.close();
+	}
+}
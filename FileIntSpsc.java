@@ -0,0 +1,221 @@
+package pilesimple;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Une file d'entiers de taille bornée spécialisée pour le transfert entre
+ * exactement deux threads : un unique producteur (qui appelle
+ * <code>enfiler</code>) et un unique consommateur (qui appelle
+ * <code>getTete</code> et <code>defiler</code>).
+ *
+ * Aucun verrou ni CAS n'est utilisé : chaque indice n'est modifié que par un
+ * seul thread et publié par une écriture ordonnée (release), lue par l'autre
+ * thread avec une lecture acquire. Les deux indices sont séparés par du
+ * bourrage afin de ne pas partager la même ligne de cache.
+ *
+ * Deux threads ne peuvent pas retirer et ajouter au même sommet de pile sans
+ * opération atomique de type lecture-modification-écriture ; il s'agit donc
+ * d'une file : les éléments sont transmis au consommateur dans leur ordre
+ * d'arrivée. Le tableau des éléments a pour taille la puissance de 2
+ * supérieure ou égale à la capacité, ce qui réduit le calcul d'un indice à un
+ * masque.
+ *
+ * @author Marc Champesme
+ * @version 1.8.0
+ * @invariant (0 <= getNbElements()) && (getNbElements() <= getNbMaxElements());
+ */
+public class FileIntSpsc extends FileIntSpscBourrage2 {
+	private static final VarHandle INDICE_PRODUCTEUR;
+	private static final VarHandle INDICE_CONSOMMATEUR;
+
+	static {
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			INDICE_PRODUCTEUR = lookup.findVarHandle(FileIntSpscProducteur.class, "indiceProducteur", long.class);
+			INDICE_CONSOMMATEUR = lookup.findVarHandle(FileIntSpscConsommateur.class, "indiceConsommateur",
+					long.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private final int[] contenu;
+	private final int masque;
+	private final int nbMaxElements;
+
+	/**
+	 * Initialise une file vide avec la capacité maximale spécifiée.
+	 *
+	 * @param nbMaxElements la capacité maximale de la file
+	 *
+	 * @requires nbMaxElements > 0;
+	 * @requires nbMaxElements <= (1 << 30);
+	 * @ensures estVide();
+	 * @ensures (getNbMaxElements() == nbMaxElements);
+	 * @ensures (getNbElements() == 0);
+	 *
+	 */
+	public FileIntSpsc(int nbMaxElements) {
+		int taille = Integer.highestOneBit(nbMaxElements);
+		if (taille < nbMaxElements) {
+			taille <<= 1;
+		}
+		contenu = new int[taille];
+		masque = taille - 1;
+		this.nbMaxElements = nbMaxElements;
+	}
+
+	/**
+	 * Consultation du nombre maximal d'élément pouvant etre
+	 * stockés dans la file.
+	 *
+	 * @return capacité maximale de la file
+	 *
+	 * @pure
+	 */
+	public int getNbMaxElements() {
+		return nbMaxElements;
+	}
+
+	/**
+	 * Consultation du nombre d'éléments présents dans la file. Lorsque l'autre
+	 * thread est actif, la valeur renvoyée n'est qu'un instantané.
+	 *
+	 * @return nombre d'éléments de la file
+	 *
+	 * @pure
+	 */
+	public int getNbElements() {
+		long consommateur = (long) INDICE_CONSOMMATEUR.getAcquire(this);
+		long producteur = (long) INDICE_PRODUCTEUR.getAcquire(this);
+		return (int) (producteur - consommateur);
+	}
+
+	/**
+	 * Consultation de la tête de file, i.e. du plus ancien élément non encore
+	 * retiré. Réservé au thread consommateur.
+	 *
+	 * @return la tête de file
+	 *
+	 * @requires !estVide();
+	 *
+	 * @pure
+	 */
+	public int getTete() {
+		return contenu[indice(indiceConsommateur)];
+	}
+
+	/**
+	 * Ajout en queue de file. Réservé au thread producteur.
+	 *
+	 * @param e L'élement à ajouter
+	 *
+	 * @requires !estPleine();
+	 * @ensures !estVide();
+	 *
+	 */
+	public void enfiler(int e) {
+		long producteur = indiceProducteur;
+		contenu[indice(producteur)] = e;
+		INDICE_PRODUCTEUR.setRelease(this, producteur + 1);
+	}
+
+	/**
+	 * Retrait de l'élement en tête de file. Réservé au thread consommateur.
+	 *
+	 * @requires !estVide();
+	 * @ensures !estPleine();
+	 *
+	 */
+	public void defiler() {
+		INDICE_CONSOMMATEUR.setRelease(this, indiceConsommateur + 1);
+	}
+
+	/**
+	 * La file est-elle pleine ? Méthode à utiliser par le producteur avant tout
+	 * ajout : seul le producteur peut faire passer la file à l'état plein, un
+	 * résultat <code>false</code> reste donc valide jusqu'au prochain ajout.
+	 *
+	 * @return true si la file est pleine (capacité atteinte), false sinon.
+	 *
+	 * @pure
+	 */
+	public boolean estPleine() {
+		long producteur = indiceProducteur;
+		if (producteur - limiteProducteur < nbMaxElements) {
+			return false;
+		}
+		limiteProducteur = (long) INDICE_CONSOMMATEUR.getAcquire(this);
+		return (producteur - limiteProducteur == nbMaxElements);
+	}
+
+	/**
+	 * La file est-elle vide ? Méthode à utiliser par le consommateur avant toute
+	 * suppression ou consultation : seul le consommateur peut faire passer la
+	 * file à l'état vide, un résultat <code>false</code> reste donc valide
+	 * jusqu'au prochain retrait.
+	 *
+	 * @return true si la file est vide, false sinon.
+	 *
+	 * @pure
+	 */
+	public boolean estVide() {
+		long consommateur = indiceConsommateur;
+		if (consommateur < limiteConsommateur) {
+			return false;
+		}
+		limiteConsommateur = (long) INDICE_PRODUCTEUR.getAcquire(this);
+		return (consommateur == limiteConsommateur);
+	}
+
+	private int indice(long i) {
+		return (int) i & masque;
+	}
+
+	/**
+	 * Renvoie une représentation de cette instance sous forme de chaîne de
+	 * caractère.
+	 *
+	 * @return une chaîne de caractères représentant cette instance.
+	 *
+	 * @also
+	 * @ensures \result != null;
+	 *
+	 * @pure
+	 */
+	public String toString() {
+		return "FileIntSpsc(" + getNbElements() + "/" + getNbMaxElements() + ")";
+	}
+}
+
+/*
+ * Hiérarchie de bourrage : les champs d'une superclasse sont placés avant ceux
+ * de ses sous-classes, ce qui garantit au moins 64 octets entre l'indice du
+ * producteur, celui du consommateur et les champs voisins.
+ */
+abstract class FileIntSpscBourrage0 {
+	long p00, p01, p02, p03, p04, p05, p06, p07;
+}
+
+abstract class FileIntSpscProducteur extends FileIntSpscBourrage0 {
+	// Écrit par le producteur uniquement:
+	long indiceProducteur;
+	// Copie locale au producteur de l'indice du consommateur:
+	long limiteProducteur;
+}
+
+abstract class FileIntSpscBourrage1 extends FileIntSpscProducteur {
+	long p10, p11, p12, p13, p14, p15, p16, p17;
+}
+
+abstract class FileIntSpscConsommateur extends FileIntSpscBourrage1 {
+	// Écrit par le consommateur uniquement:
+	long indiceConsommateur;
+	// Copie locale au consommateur de l'indice du producteur:
+	long limiteConsommateur;
+}
+
+abstract class FileIntSpscBourrage2 extends FileIntSpscConsommateur {
+	long p20, p21, p22, p23, p24, p25, p26, p27;
+}
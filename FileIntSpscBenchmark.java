@@ -0,0 +1,161 @@
+package pilesimple.bench;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.function.Supplier;
+
+import pilesimple.FileIntSpsc;
+import pilesimple.PileInt;
+
+/**
+ * Mesure du débit de transfert d'entiers entre un thread producteur et un
+ * thread consommateur, pour <code>FileIntSpsc</code>, une <code>PileInt</code>
+ * protégée par <code>synchronized</code> et les collections concurrentes du
+ * JDK.
+ *
+ * Usage : <code>java pilesimple.bench.FileIntSpscBenchmark [nbTransferts]</code>
+ *
+ * @author Marc Champesme
+ * @version 1.8.0
+ */
+public class FileIntSpscBenchmark {
+	private static final int CAPACITE = 1024;
+	private static final int NB_ITERATIONS = 5;
+
+	/**
+	 * Un canal de transfert entre un producteur et un consommateur.
+	 */
+	private interface Canal {
+		void envoyer(int e);
+
+		int recevoir();
+	}
+
+	private static Canal spsc() {
+		FileIntSpsc p = new FileIntSpsc(CAPACITE);
+		return new Canal() {
+			public void envoyer(int e) {
+				while (p.estPleine()) {
+					Thread.onSpinWait();
+				}
+				p.enfiler(e);
+			}
+
+			public int recevoir() {
+				while (p.estVide()) {
+					Thread.onSpinWait();
+				}
+				int e = p.getTete();
+				p.defiler();
+				return e;
+			}
+		};
+	}
+
+	private static Canal pileSynchronisee() {
+		PileInt p = new PileInt(CAPACITE);
+		return new Canal() {
+			public void envoyer(int e) {
+				while (true) {
+					synchronized (p) {
+						if (!p.estPleine()) {
+							p.empiler(e);
+							return;
+						}
+					}
+					Thread.onSpinWait();
+				}
+			}
+
+			public int recevoir() {
+				while (true) {
+					synchronized (p) {
+						if (!p.estVide()) {
+							int e = p.getSommet();
+							p.depiler();
+							return e;
+						}
+					}
+					Thread.onSpinWait();
+				}
+			}
+		};
+	}
+
+	private static Canal arrayBlockingQueue() {
+		ArrayBlockingQueue<Integer> q = new ArrayBlockingQueue<Integer>(CAPACITE);
+		return new Canal() {
+			public void envoyer(int e) {
+				while (!q.offer(e)) {
+					Thread.onSpinWait();
+				}
+			}
+
+			public int recevoir() {
+				Integer e;
+				while ((e = q.poll()) == null) {
+					Thread.onSpinWait();
+				}
+				return e;
+			}
+		};
+	}
+
+	private static Canal concurrentLinkedDeque() {
+		ConcurrentLinkedDeque<Integer> d = new ConcurrentLinkedDeque<Integer>();
+		return new Canal() {
+			public void envoyer(int e) {
+				d.push(e);
+			}
+
+			public int recevoir() {
+				Integer e;
+				while ((e = d.poll()) == null) {
+					Thread.onSpinWait();
+				}
+				return e;
+			}
+		};
+	}
+
+	/**
+	 * Transfère nbTransferts entiers par le canal spécifié et renvoie le débit
+	 * obtenu en opérations par seconde.
+	 */
+	private static double mesurer(Canal canal, int nbTransferts) throws InterruptedException {
+		Thread producteur = new Thread(() -> {
+			for (int i = 0; i < nbTransferts; i++) {
+				canal.envoyer(i);
+			}
+		});
+		long debut = System.nanoTime();
+		producteur.start();
+		long somme = 0;
+		for (int i = 0; i < nbTransferts; i++) {
+			somme += canal.recevoir();
+		}
+		producteur.join();
+		long duree = System.nanoTime() - debut;
+		if (somme != ((long) nbTransferts * (nbTransferts - 1)) / 2) {
+			throw new IllegalStateException("Éléments perdus ou dupliqués");
+		}
+		return nbTransferts * 1e9 / duree;
+	}
+
+	private static void executer(String nom, Supplier<Canal> fabrique, int nbTransferts)
+			throws InterruptedException {
+		double meilleur = 0;
+		for (int i = 0; i < NB_ITERATIONS; i++) {
+			meilleur = Math.max(meilleur, mesurer(fabrique.get(), nbTransferts));
+		}
+		System.out.printf("%-24s %12.0f ops/s%n", nom, meilleur);
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		int nbTransferts = (args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000);
+		executer("FileIntSpsc", FileIntSpscBenchmark::spsc, nbTransferts);
+		executer("PileInt synchronized", FileIntSpscBenchmark::pileSynchronisee, nbTransferts);
+		executer("ArrayBlockingQueue", FileIntSpscBenchmark::arrayBlockingQueue, nbTransferts);
+		executer("ConcurrentLinkedDeque", FileIntSpscBenchmark::concurrentLinkedDeque, nbTransferts);
+	}
+}
@@ -0,0 +1,133 @@
+/**
+ *
+ */
+package pilesimple.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import test.BaseDataProviders;
+import test.RapportGraine;
+
+import pilesimple.FileIntSpsc;
+
+/**
+ * Tests unitaires pour la classe FileIntSpsc.
+ *
+ * @author Marc Champesme
+ * @version 1.8.0
+ *
+ */
+@ExtendWith(RapportGraine.class)
+class FileIntSpscTest {
+	//////////////////////////////////////////////////
+	// Méthodes produisant les données de test:
+	//////////////////////////////////////////////////
+	public static IntStream intProvider() {
+		return BaseDataProviders.intProvider(-5, 30);
+	}
+	//////////////////////////////////////////////////
+	// Fin des méthodes produisant les données de test
+	//////////////////////////////////////////////////
+
+	/**
+	 * Teste l'invariant de classe pour l'instance spécifiée.
+	 *
+	 * @param self l'instance à tester
+	 */
+	public void assertInvariant(FileIntSpsc self) {
+		assertTrue(self.getNbElements() >= 0);
+		assertTrue(self.getNbElements() <= self.getNbMaxElements());
+	}
+
+	/**
+	 * Test method for {@link pilesimple.FileIntSpsc#FileIntSpsc(int)}.
+	 *
+	 * @requires nbMaxElements > 0;
+	 * @ensures estVide();
+	 * @ensures (getNbMaxElements() == nbMaxElements);
+	 * @ensures (getNbElements() == 0);
+	 */
+	@ParameterizedTest
+	@MethodSource("intProvider")
+	public final void testFileIntSpscInt(int nbMaxElements) {
+		// préconditions
+		assumeTrue(nbMaxElements > 0);
+
+		// Exécution
+		FileIntSpsc self = new FileIntSpsc(nbMaxElements);
+
+		// Post conditions
+		assertTrue(self.estVide());
+		assertEquals(nbMaxElements, self.getNbMaxElements());
+		assertEquals(0, self.getNbElements());
+
+		// Invariant
+		assertInvariant(self);
+	}
+
+	/**
+	 * Remplit puis vide la file en faisant le tour du tableau plusieurs fois :
+	 * les éléments ressortent dans leur ordre d'arrivée, et une capacité qui
+	 * n'est pas une puissance de 2 est respectée.
+	 */
+	@ParameterizedTest
+	@MethodSource("intProvider")
+	public final void testEnfilerDefiler(int nbMaxElements) {
+		assumeTrue(nbMaxElements > 0);
+		FileIntSpsc self = new FileIntSpsc(nbMaxElements);
+		int suivant = 0;
+		for (int tour = 0; tour < 3; tour++) {
+			for (int i = 0; i < nbMaxElements; i++) {
+				assertFalse(self.estPleine());
+				self.enfiler(tour * nbMaxElements + i);
+				assertInvariant(self);
+			}
+			assertTrue(self.estPleine());
+			while (!self.estVide()) {
+				assertEquals(suivant, self.getTete());
+				self.defiler();
+				suivant++;
+				assertFalse(self.estPleine());
+				assertInvariant(self);
+			}
+		}
+	}
+
+	/**
+	 * Transfert entre deux threads : aucun élément ne doit être perdu, dupliqué
+	 * ou réordonné.
+	 */
+	@Test
+	public final void testTransfertEntreThreads() throws InterruptedException {
+		int nbTransferts = 100_000;
+		FileIntSpsc self = new FileIntSpsc(64);
+		Thread producteur = new Thread(() -> {
+			for (int i = 0; i < nbTransferts; i++) {
+				while (self.estPleine()) {
+					Thread.yield();
+				}
+				self.enfiler(i);
+			}
+		});
+		producteur.start();
+		for (int i = 0; i < nbTransferts; i++) {
+			while (self.estVide()) {
+				Thread.yield();
+			}
+			assertEquals(i, self.getTete());
+			self.defiler();
+		}
+		producteur.join();
+		assertTrue(self.estVide());
+	}
+}
@@ -0,0 +1,188 @@
+/**
+ *
+ */
+package test;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.SplittableRandom;
+import java.util.function.LongConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import pilesimple.TraceInt;
+
+/**
+ * Générateur reproductible de traces d'opérations (empiler, depiler,
+ * getSommet) destinées aux tests et aux mesures de performance sur des piles de
+ * grande taille.
+ *
+ * Chaque trace est identifiée par son indice et produite par son propre
+ * <code>SplittableRandom</code>, initialisé à partir de la graine du
+ * générateur et de cet indice : une trace ne dépend donc ni de l'ordre dans
+ * lequel les traces sont produites ni du thread qui la produit, et le flot
+ * renvoyé par {@link #traces(int)} peut être parallélisé.
+ *
+ * Une trace est produite à la demande sous forme de <code>LongStream</code>
+ * séquentiel, sans être stockée en mémoire. Chaque opération est codée sur un
+ * <code>long</code> : le code de l'opération dans les 32 bits de poids fort et
+ * l'élément empilé dans les 32 bits de poids faible, comme dans
+ * {@link TraceInt}.
+ *
+ * La taille maximale atteinte par une trace (et donc la capacité nécessaire à
+ * son exécution) suit une loi log-uniforme entre tailleMin et tailleMax. Une
+ * trace alterne une phase de croissance, où les ajouts dominent, et une phase
+ * de décroissance jusqu'à la pile vide.
+ *
+ * @author Marc Champesme
+ * @version 1.8.0
+ *
+ */
+public class GenerateurTraces {
+	public static final int EMPILER = TraceInt.EMPILER;
+	public static final int DEPILER = TraceInt.DEPILER;
+	public static final int SOMMET = TraceInt.SOMMET;
+
+	private static final long GAMMA = 0x9E3779B97F4A7C15L;
+
+	private final long graine;
+	private final int tailleMin;
+	private final int tailleMax;
+
+	/**
+	 * Initialise un générateur de traces.
+	 *
+	 * @requires tailleMin > 0;
+	 * @requires tailleMin <= tailleMax;
+	 *
+	 * @param graine    la graine déterminant toutes les traces produites
+	 * @param tailleMin la plus petite taille maximale d'une trace
+	 * @param tailleMax la plus grande taille maximale d'une trace
+	 */
+	public GenerateurTraces(long graine, int tailleMin, int tailleMax) {
+		this.graine = graine;
+		this.tailleMin = tailleMin;
+		this.tailleMax = tailleMax;
+	}
+
+	/**
+	 * @ensures \result > 0;
+	 * @ensures \result >= tailleMin && \result <= tailleMax;
+	 *
+	 * @param indice l'indice d'une trace
+	 * @return la taille maximale atteinte par la trace spécifiée, i.e. la
+	 *         capacité nécessaire pour l'exécuter
+	 */
+	public int taille(int indice) {
+		return taille(generateur(indice));
+	}
+
+	/**
+	 * @param indice l'indice de la trace
+	 * @return le flot séquentiel et paresseux des opérations de la trace
+	 *         spécifiée
+	 */
+	public LongStream trace(int indice) {
+		SplittableRandom rand = generateur(indice);
+		int taille = taille(rand);
+		return StreamSupport.longStream(new TraceSpliterator(rand, taille), false);
+	}
+
+	/**
+	 * @requires nbTraces >= 0;
+	 *
+	 * @param nbTraces le nombre de traces
+	 * @return les traces d'indice 0 à nbTraces - 1 ; le flot peut être rendu
+	 *         parallèle sans changer les traces produites
+	 */
+	public Stream<LongStream> traces(int nbTraces) {
+		return IntStream.range(0, nbTraces).mapToObj(this::trace);
+	}
+
+	/**
+	 * @param operation une opération codée
+	 * @return le code de l'opération: EMPILER, DEPILER ou SOMMET
+	 */
+	public static int code(long operation) {
+		return TraceInt.code(operation);
+	}
+
+	/**
+	 * @param operation une opération codée
+	 * @return l'élément à empiler si l'opération est EMPILER
+	 */
+	public static int valeur(long operation) {
+		return TraceInt.valeur(operation);
+	}
+
+	/**
+	 * @param code   le code de l'opération
+	 * @param valeur l'élément à empiler, ignoré pour les autres opérations
+	 * @return l'opération codée
+	 */
+	public static long operation(int code, int valeur) {
+		return TraceInt.operation(code, valeur);
+	}
+
+	private SplittableRandom generateur(int indice) {
+		return new SplittableRandom(graine + indice * GAMMA);
+	}
+
+	private int taille(SplittableRandom rand) {
+		double logMin = Math.log(tailleMin);
+		double logMax = Math.log(tailleMax + 1.0);
+		int taille = (int) Math.exp(logMin + rand.nextDouble() * (logMax - logMin));
+		return Math.max(tailleMin, Math.min(tailleMax, taille));
+	}
+
+	/**
+	 * Produit paresseusement les opérations d'une trace : phase de croissance
+	 * jusqu'à la taille maximale puis phase de décroissance jusqu'à la pile
+	 * vide. Les préconditions de empiler, depiler et getSommet sont toujours
+	 * respectées.
+	 */
+	private static class TraceSpliterator extends Spliterators.AbstractLongSpliterator {
+		private final SplittableRandom rand;
+		private final int taille;
+		private int nbElements;
+		private boolean croissance = true;
+
+		TraceSpliterator(SplittableRandom rand, int taille) {
+			super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+			this.rand = rand;
+			this.taille = taille;
+		}
+
+		public boolean tryAdvance(LongConsumer action) {
+			if (croissance && nbElements == taille) {
+				croissance = false;
+			}
+			if (!croissance && nbElements == 0) {
+				return false;
+			}
+			int tirage = rand.nextInt(8);
+			int code;
+			if (nbElements == 0) {
+				code = EMPILER;
+			} else if (nbElements == taille) {
+				code = DEPILER;
+			} else if (tirage == 0) {
+				code = SOMMET;
+			} else if (croissance) {
+				code = (tirage < 6 ? EMPILER : DEPILER);
+			} else {
+				code = (tirage < 6 ? DEPILER : EMPILER);
+			}
+			if (code == EMPILER) {
+				nbElements++;
+			} else if (code == DEPILER) {
+				nbElements--;
+			}
+			int valeur = rand.nextInt();
+			action.accept(operation(code, code == EMPILER ? valeur : 0));
+			return true;
+		}
+	}
+}
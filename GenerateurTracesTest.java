@@ -0,0 +1,96 @@
+/**
+ *
+ */
+package test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import pilesimple.PileInt;
+
+/**
+ * Tests unitaires pour la classe GenerateurTraces.
+ *
+ * @author Marc Champesme
+ * @version 1.8.0
+ *
+ */
+@ExtendWith(RapportGraine.class)
+class GenerateurTracesTest {
+	public static LongStream graineProvider() {
+		return LongStream.of(0, 1, -1, BaseDataProviders.getGraine());
+	}
+
+	/**
+	 * Chaque trace respecte les préconditions de PileInt pour une capacité
+	 * égale à sa taille, atteint cette taille et se termine sur une pile vide.
+	 */
+	@ParameterizedTest
+	@MethodSource("graineProvider")
+	public final void testTraceValide(long graine) {
+		GenerateurTraces self = new GenerateurTraces(graine, 1, 10_000);
+		for (int indice = 0; indice < 20; indice++) {
+			int taille = self.taille(indice);
+			assertTrue(taille >= 1 && taille <= 10_000);
+			PileInt pile = new PileInt(taille);
+			int[] maxAtteint = new int[1];
+			self.trace(indice).forEach(op -> {
+				switch (GenerateurTraces.code(op)) {
+				case GenerateurTraces.EMPILER:
+					assertFalse(pile.estPleine());
+					pile.empiler(GenerateurTraces.valeur(op));
+					assertEquals(GenerateurTraces.valeur(op), pile.getSommet());
+					break;
+				case GenerateurTraces.DEPILER:
+					assertFalse(pile.estVide());
+					pile.depiler();
+					break;
+				default:
+					assertFalse(pile.estVide());
+					pile.getSommet();
+				}
+				maxAtteint[0] = Math.max(maxAtteint[0], pile.getNbElements());
+			});
+			assertEquals(taille, maxAtteint[0]);
+			assertTrue(pile.estVide());
+		}
+	}
+
+	/**
+	 * Une même graine produit les mêmes traces, en séquentiel comme en
+	 * parallèle.
+	 */
+	@ParameterizedTest
+	@MethodSource("graineProvider")
+	public final void testReproductible(long graine) {
+		List<long[]> sequentiel = new GenerateurTraces(graine, 1, 1000).traces(50).map(LongStream::toArray)
+				.collect(Collectors.toList());
+		List<long[]> parallele = new GenerateurTraces(graine, 1, 1000).traces(50).parallel()
+				.map(LongStream::toArray).collect(Collectors.toList());
+		assertEquals(sequentiel.size(), parallele.size());
+		for (int i = 0; i < sequentiel.size(); i++) {
+			assertArrayEquals(sequentiel.get(i), parallele.get(i));
+		}
+	}
+
+	/**
+	 * Les traces de très grande taille sont produites à la demande.
+	 */
+	@Test
+	public final void testTraceParesseuse() {
+		GenerateurTraces self = new GenerateurTraces(42, 100_000_000, 100_000_000);
+		assertEquals(100_000_000, self.taille(0));
+		assertEquals(1000, self.trace(0).limit(1000).count());
+	}
+}
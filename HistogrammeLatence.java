@@ -0,0 +1,165 @@
+package pilesimple.bench;
+
+/**
+ * Histogramme de latences à précision relative bornée, sur le modèle de
+ * HdrHistogram : les valeurs inférieures à 256 sont comptées exactement, les
+ * autres dans des classes dont la largeur est inférieure à 1/128 de leur
+ * borne inférieure (erreur relative inférieure à 0,8 %). La mémoire occupée
+ * est fixe (environ 60 Ko) quel que soit le nombre de valeurs enregistrées.
+ *
+ * Les instances ne sont pas protégées contre les accès concurrents : chaque
+ * thread enregistre dans son propre histogramme, fusionné ensuite par
+ * {@link #ajouter(HistogrammeLatence)}.
+ *
+ * @author Marc Champesme
+ * @version 1.8.0
+ */
+public class HistogrammeLatence {
+	private static final int BITS_SOUS_CLASSES = 7;
+	private static final int NB_SOUS_CLASSES = 1 << BITS_SOUS_CLASSES;
+	private static final int NB_EXACTES = 2 * NB_SOUS_CLASSES;
+
+	private final long[] compteurs = new long[NB_EXACTES + (64 - BITS_SOUS_CLASSES) * NB_SOUS_CLASSES];
+	private long nbValeurs;
+	private long somme;
+	private long max;
+
+	/**
+	 * Enregistre une valeur.
+	 *
+	 * @param valeur la valeur à enregistrer, en nanosecondes
+	 *
+	 * @requires valeur >= 0;
+	 */
+	public void enregistrer(long valeur) {
+		compteurs[indice(valeur)]++;
+		nbValeurs++;
+		somme += valeur;
+		max = Math.max(max, valeur);
+	}
+
+	/**
+	 * Enregistre une valeur en corrigeant l'omission coordonnée : lorsqu'une
+	 * opération a duré plus longtemps que l'intervalle attendu entre deux
+	 * opérations, les opérations qui auraient dû démarrer pendant ce temps sont
+	 * enregistrées avec les latences qu'elles auraient subies.
+	 *
+	 * @param valeur              la valeur à enregistrer, en nanosecondes
+	 * @param intervalleAttendu   l'intervalle prévu entre deux opérations
+	 *
+	 * @requires valeur >= 0;
+	 * @requires intervalleAttendu > 0;
+	 */
+	public void enregistrer(long valeur, long intervalleAttendu) {
+		enregistrer(valeur);
+		for (long manquante = valeur - intervalleAttendu; manquante >= intervalleAttendu;
+				manquante -= intervalleAttendu) {
+			enregistrer(manquante);
+		}
+	}
+
+	/**
+	 * Ajoute à cet histogramme toutes les valeurs de l'histogramme spécifié.
+	 *
+	 * @param h l'histogramme à ajouter
+	 *
+	 * @requires h != null;
+	 */
+	public void ajouter(HistogrammeLatence h) {
+		for (int i = 0; i < compteurs.length; i++) {
+			compteurs[i] += h.compteurs[i];
+		}
+		nbValeurs += h.nbValeurs;
+		somme += h.somme;
+		max = Math.max(max, h.max);
+	}
+
+	/**
+	 * Consultation du nombre de valeurs enregistrées.
+	 *
+	 * @return nombre de valeurs enregistrées
+	 *
+	 * @pure
+	 */
+	public long getNbValeurs() {
+		return nbValeurs;
+	}
+
+	/**
+	 * Consultation de la plus grande valeur enregistrée.
+	 *
+	 * @return la plus grande valeur exacte, 0 si l'histogramme est vide
+	 *
+	 * @pure
+	 */
+	public long getMax() {
+		return max;
+	}
+
+	/**
+	 * Consultation de la moyenne des valeurs enregistrées.
+	 *
+	 * @return la moyenne exacte, 0 si l'histogramme est vide
+	 *
+	 * @pure
+	 */
+	public double getMoyenne() {
+		return (nbValeurs == 0 ? 0 : (double) somme / nbValeurs);
+	}
+
+	/**
+	 * Renvoie la valeur au percentile spécifié, à la précision des classes
+	 * près.
+	 *
+	 * @param percentile le percentile, entre 0 et 100
+	 * @return la borne supérieure de la classe contenant le percentile, 0 si
+	 *         l'histogramme est vide
+	 *
+	 * @requires percentile >= 0 && percentile <= 100;
+	 *
+	 * @pure
+	 */
+	public long getValeurAuPercentile(double percentile) {
+		long rang = Math.max(1, (long) Math.ceil(percentile / 100 * nbValeurs));
+		long cumul = 0;
+		for (int i = 0; i < compteurs.length; i++) {
+			cumul += compteurs[i];
+			if (cumul >= rang) {
+				return Math.min(max, borneSuperieure(i));
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * Renvoie une représentation de cette instance sous forme de chaîne de
+	 * caractère : nombre de valeurs, moyenne et principaux percentiles.
+	 *
+	 * @return une chaîne de caractères représentant cette instance.
+	 *
+	 * @pure
+	 */
+	public String toString() {
+		return String.format("n=%d moy=%.0f p50=%d p90=%d p99=%d p99.9=%d p99.99=%d max=%d", nbValeurs,
+				getMoyenne(), getValeurAuPercentile(50), getValeurAuPercentile(90), getValeurAuPercentile(99),
+				getValeurAuPercentile(99.9), getValeurAuPercentile(99.99), max);
+	}
+
+	private static int indice(long valeur) {
+		if (valeur < NB_EXACTES) {
+			return (int) valeur;
+		}
+		int decalage = (63 - Long.numberOfLeadingZeros(valeur)) - BITS_SOUS_CLASSES;
+		int mantisse = (int) (valeur >>> decalage) - NB_SOUS_CLASSES;
+		return NB_EXACTES + (decalage - 1) * NB_SOUS_CLASSES + mantisse;
+	}
+
+	private static long borneSuperieure(int indice) {
+		if (indice < NB_EXACTES) {
+			return indice;
+		}
+		int decalage = (indice - NB_EXACTES) / NB_SOUS_CLASSES + 1;
+		long mantisse = (indice - NB_EXACTES) % NB_SOUS_CLASSES + NB_SOUS_CLASSES;
+		return ((mantisse + 1) << decalage) - 1;
+	}
+}
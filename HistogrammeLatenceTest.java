@@ -0,0 +1,80 @@
+/**
+ *
+ */
+package pilesimple.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import test.BaseDataProviders;
+import test.RapportGraine;
+
+import pilesimple.bench.HistogrammeLatence;
+
+/**
+ * Tests unitaires pour la classe HistogrammeLatence.
+ *
+ * @author Marc Champesme
+ * @version 1.8.0
+ *
+ */
+@ExtendWith(RapportGraine.class)
+class HistogrammeLatenceTest {
+	public static double[] percentileProvider() {
+		return new double[] { 0, 1, 50, 90, 99, 99.9, 99.99, 100 };
+	}
+
+	/**
+	 * Les percentiles sont exacts à 1/128 près.
+	 */
+	@ParameterizedTest
+	@MethodSource("percentileProvider")
+	public final void testPercentile(double percentile) {
+		SplittableRandom rand = new SplittableRandom(BaseDataProviders.getGraine());
+		long[] valeurs = new long[100_000];
+		HistogrammeLatence self = new HistogrammeLatence();
+		for (int i = 0; i < valeurs.length; i++) {
+			// Distribution à longue queue
+			valeurs[i] = (long) Math.exp(rand.nextDouble() * 25);
+			self.enregistrer(valeurs[i]);
+		}
+		Arrays.sort(valeurs);
+		long attendu = valeurs[(int) Math.max(0, Math.ceil(percentile / 100 * valeurs.length) - 1)];
+		long obtenu = self.getValeurAuPercentile(percentile);
+		assertTrue(obtenu >= attendu, obtenu + " < " + attendu);
+		assertTrue(obtenu <= attendu + attendu / 128, obtenu + " > " + attendu);
+		assertEquals(valeurs.length, self.getNbValeurs());
+		assertEquals(valeurs[valeurs.length - 1], self.getMax());
+	}
+
+	/**
+	 * Une opération de 10 intervalles masque 9 opérations qui auraient dû
+	 * démarrer pendant sa durée.
+	 */
+	@Test
+	public final void testOmissionCoordonnee() {
+		HistogrammeLatence self = new HistogrammeLatence();
+		for (int i = 0; i < 90; i++) {
+			self.enregistrer(10, 100);
+		}
+		self.enregistrer(1000, 100);
+		assertEquals(100, self.getNbValeurs());
+		assertEquals(10, self.getValeurAuPercentile(90));
+		assertTrue(self.getValeurAuPercentile(91) >= 100);
+		assertEquals(1000, self.getValeurAuPercentile(100));
+
+		HistogrammeLatence total = new HistogrammeLatence();
+		total.ajouter(self);
+		total.ajouter(self);
+		assertEquals(200, total.getNbValeurs());
+		assertEquals(self.getValeurAuPercentile(95), total.getValeurAuPercentile(95));
+	}
+}
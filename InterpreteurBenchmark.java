@@ -0,0 +1,108 @@
+package pilesimple.bench;
+
+import pilesimple.PileInt;
+
+/**
+ * Micro-benchmark de type interpréteur : <code>PileInt</code> sert de pile
+ * d'opérandes d'une machine à pile qui exécute une suite d'appels de fonction.
+ * Chaque appel empile trois arguments et deux variables locales, lit ses
+ * opérandes, puis son cadre est retiré et le résultat empilé.
+ *
+ * La variante « élément par élément » n'utilise que <code>empiler</code>,
+ * <code>getSommet</code> et <code>depiler</code> ; la variante « cadres »
+ * utilise <code>empilerFrame</code>, <code>getElement</code>,
+ * <code>ouvrirFrame</code> et <code>fermerFrame</code>.
+ *
+ * Usage : <code>java pilesimple.bench.InterpreteurBenchmark [nbAppels]</code>
+ *
+ * @author Marc Champesme
+ * @version 1.8.0
+ */
+public class InterpreteurBenchmark {
+	private static final int NB_ITERATIONS = 20;
+	private static final int PROFONDEUR = 64;
+
+	/**
+	 * Appels imbriqués sur PROFONDEUR niveaux, élément par élément.
+	 */
+	private static int elementParElement(PileInt p, int nbAppels) {
+		int resultat = 0;
+		for (int i = 0; i < nbAppels; i++) {
+			int profondeur = i % PROFONDEUR;
+			if (profondeur == 0) {
+				while (!p.estVide()) {
+					p.depiler();
+				}
+			}
+			// Arguments et variables locales
+			p.empiler(i);
+			p.empiler(resultat);
+			p.empiler(profondeur);
+			p.empiler(i ^ resultat);
+			p.empiler(1);
+			// Corps: lecture des opérandes par retraits successifs
+			int l1 = p.getSommet();
+			p.depiler();
+			int l0 = p.getSommet();
+			p.depiler();
+			int a2 = p.getSommet();
+			p.depiler();
+			int a1 = p.getSommet();
+			p.depiler();
+			int a0 = p.getSommet();
+			p.depiler();
+			resultat = a0 + a1 * 31 + a2 + l0 - l1;
+			// Valeur de retour, laissée dans le cadre de l'appelant
+			p.empiler(resultat);
+		}
+		return resultat;
+	}
+
+	/**
+	 * Mêmes appels, par cadres.
+	 */
+	private static int parCadres(PileInt p, int nbAppels) {
+		int resultat = 0;
+		for (int i = 0; i < nbAppels; i++) {
+			int profondeur = i % PROFONDEUR;
+			if (profondeur == 0) {
+				p.fermerFrame(0);
+			}
+			int cadre = p.ouvrirFrame();
+			p.empilerFrame(i, resultat, profondeur);
+			p.empilerFrame(i ^ resultat, 1);
+			int l1 = p.getElement(0);
+			int l0 = p.getElement(1);
+			int a2 = p.getElement(2);
+			int a1 = p.getElement(3);
+			int a0 = p.getElement(4);
+			resultat = a0 + a1 * 31 + a2 + l0 - l1;
+			p.fermerFrame(cadre);
+			p.empiler(resultat);
+		}
+		return resultat;
+	}
+
+	public static void main(String[] args) {
+		int nbAppels = (args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000);
+		PileInt pile = new PileInt(PROFONDEUR + 8);
+		long meilleurElement = Long.MAX_VALUE;
+		long meilleurCadres = Long.MAX_VALUE;
+		for (int i = 0; i < NB_ITERATIONS; i++) {
+			pile.fermerFrame(0);
+			long debut = System.nanoTime();
+			int r1 = elementParElement(pile, nbAppels);
+			meilleurElement = Math.min(meilleurElement, System.nanoTime() - debut);
+			pile.fermerFrame(0);
+			debut = System.nanoTime();
+			int r2 = parCadres(pile, nbAppels);
+			meilleurCadres = Math.min(meilleurCadres, System.nanoTime() - debut);
+			if (r1 != r2) {
+				throw new IllegalStateException("Résultats différents: " + r1 + " != " + r2);
+			}
+		}
+		System.out.printf("élément par élément %8.3f ns/appel%n", (double) meilleurElement / nbAppels);
+		System.out.printf("cadres              %8.3f ns/appel%n", (double) meilleurCadres / nbAppels);
+		System.out.printf("gain                %8.2fx%n", (double) meilleurElement / meilleurCadres);
+	}
+}
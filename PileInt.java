@@ -1,18 +1,40 @@
 package pilesimple;
 
+import java.nio.IntBuffer;
+import java.util.Arrays;
 
 /**
  * Une pile d'entiers de taille bornée representée par un tableau.
  *
+ * Les préconditions et l'invariant sont vérifiés à l'exécution lorsque la
+ * propriété système <code>pilesimple.contrats</code> vaut <code>true</code>
+ * (option <code>-Dpilesimple.contrats=true</code>). Sinon, les vérifications
+ * sont éliminées par le compilateur JIT et n'ont aucun coût.
+ *
  * @author Marc Champesme
  * @version 1.8.0
  * @invariant (0 <= getNbElements()) && (getNbElements() <= getNbMaxElements());
  */
 
 public class PileInt implements Cloneable {
+	// Constante lue une seule fois: les tests qui en dépendent disparaissent du
+	// code compilé lorsqu'elle vaut false.
+	static final boolean CONTRATS = Boolean.getBoolean("pilesimple.contrats");
+
 	private int[] contenu;
 	private int nbMaxElements;
 	private int nbElements;
+	// Journal d'annulation: paires (indice, ancienne valeur) écrasées depuis la
+	// plus ancienne marque active.
+	private int[] journal;
+	private int tailleJournal;
+	// Pour chaque marque: nbElements, tailleJournal et seuilJournal au moment
+	// de sa pose.
+	private int[] marques;
+	private int nbMarques;
+	// Plus grand nbElements parmi les marques actives: seules les écritures
+	// sous ce seuil doivent être journalisées.
+	private int seuilJournal;
 
 	/**
 	 * Initialise une pile vide avec la capacité maximale spécifiée.
@@ -27,7 +49,28 @@ public class PileInt implements Cloneable {
 	 *
 	 */
 	public PileInt(int nbMaxElements) {
-		contenu = new int[nbMaxElements];
+		this(nbMaxElements, 0);
+	}
+
+	/**
+	 * Initialise une pile vide avec la capacité maximale spécifiée, dont le
+	 * tableau est prolongé de bourrage cases jamais utilisées. Ces cases
+	 * écartent les derniers éléments de la pile des objets alloués à sa suite.
+	 *
+	 * @param nbMaxElements la capacité maximale de la pile
+	 * @param bourrage      le nombre de cases inutilisées en fin de tableau
+	 *
+	 * @requires nbMaxElements >= 0;
+	 * @requires bourrage >= 0;
+	 * @requires nbMaxElements + bourrage < Integer.MAX_VALUE;
+	 * @ensures estVide();
+	 * @ensures (getNbMaxElements() == nbMaxElements);
+	 */
+	PileInt(int nbMaxElements, int bourrage) {
+		if (CONTRATS && (nbMaxElements < 0 || nbMaxElements == Integer.MAX_VALUE)) {
+			throw new IllegalArgumentException("Capacité invalide: " + nbMaxElements);
+		}
+		contenu = new int[nbMaxElements + bourrage];
 		this.nbMaxElements = nbMaxElements;
 	}
 
@@ -49,6 +92,9 @@ public class PileInt implements Cloneable {
 	 *
 	 */
 	public PileInt(int[] elements, int nbElements) {
+		if (CONTRATS && (nbElements < 0 || nbElements > elements.length)) {
+			throw new IllegalArgumentException("Nombre d'éléments invalide: " + nbElements);
+		}
 		contenu = elements.clone();
 		this.nbMaxElements = contenu.length;
 		this.nbElements = nbElements;
@@ -87,9 +133,97 @@ public class PileInt implements Cloneable {
 	 * @pure
 	 */
 	public int getSommet() {
+		if (CONTRATS && estVide()) {
+			throw new IllegalStateException("getSommet: la pile est vide");
+		}
 		return contenu[nbElements - 1];
 	}
 
+	/**
+	 * Consultation de l'élément situé à la profondeur spécifiée, sans le
+	 * retirer.
+	 *
+	 * @param profondeur la distance au sommet (0 pour le sommet)
+	 * @return l'élément situé à la profondeur spécifiée
+	 *
+	 * @requires profondeur >= 0;
+	 * @requires profondeur < getNbElements();
+	 * @ensures (profondeur == 0) ==> (\result == getSommet());
+	 *
+	 * @pure
+	 */
+	public int getElement(int profondeur) {
+		if (CONTRATS && (profondeur < 0 || profondeur >= nbElements)) {
+			throw new IllegalArgumentException("getElement: profondeur invalide: " + profondeur);
+		}
+		return contenu[nbElements - 1 - profondeur];
+	}
+
+	/**
+	 * Copie les k éléments du sommet de la pile dans le tableau spécifié, sans
+	 * les retirer : dest[0] reçoit le sommet, dest[i] l'élément de profondeur i.
+	 *
+	 * @param k    le nombre d'éléments à copier
+	 * @param dest le tableau destination
+	 *
+	 * @requires k >= 0;
+	 * @requires k <= getNbElements();
+	 * @requires dest != null;
+	 * @requires dest.length >= k;
+	 * @ensures (\forall int i; i >= 0 && i < k; dest[i] == getElement(i));
+	 *
+	 * @pure
+	 */
+	public void peek(int k, int[] dest) {
+		if (CONTRATS && (k < 0 || k > nbElements || dest.length < k)) {
+			throw new IllegalArgumentException("peek: nombre d'éléments invalide: " + k);
+		}
+		int sommet = nbElements - 1;
+		for (int i = 0; i < k; i++) {
+			dest[i] = contenu[sommet - i];
+		}
+	}
+
+	/**
+	 * Renvoie une vue en lecture seule des éléments de la pile, sans copie : la
+	 * position 0 de la vue correspond à la base de la pile et sa limite au
+	 * nombre d'éléments lors de l'appel. La vue reflète les modifications
+	 * ultérieures des éléments présents, mais pas les changements du nombre
+	 * d'éléments.
+	 *
+	 * @return une vue en lecture seule des éléments de la pile
+	 *
+	 * @ensures \result.isReadOnly();
+	 * @ensures \result.remaining() == getNbElements();
+	 * @ensures \result.capacity() == getNbElements();
+	 * @ensures (\forall int i; i >= 0 && i < getNbElements();
+	 *          \result.get(getNbElements() - 1 - i) == getElement(i));
+	 *
+	 * @pure
+	 */
+	public IntBuffer asIntBuffer() {
+		// slice: la capacité de la vue est limitée aux éléments présents, les
+		// cases libres du tableau restent inaccessibles (y compris par clear).
+		return IntBuffer.wrap(contenu, 0, nbElements).slice().asReadOnlyBuffer();
+	}
+
+	/**
+	 * Renvoie un instantané immuable de la pile, qui peut être partagé entre
+	 * threads sans synchronisation ni copie défensive.
+	 *
+	 * @return un instantané de l'état courant de la pile
+	 *
+	 * @ensures \result != null;
+	 * @ensures \result.estCopieDe(this);
+	 * @ensures \result.hashCode() == hashCode();
+	 * @ensures \result.toString().equals(toString());
+	 *
+	 * @pure
+	 */
+	public PileIntFigee freeze() {
+		return new PileIntFigee(this);
+	}
+
 	/**
 	 * Ajout au sommet de la pile (i.e. push).
 	 *
@@ -102,8 +236,17 @@ public class PileInt implements Cloneable {
 	 *
 	 */
 	public void empiler(int e) {
+		if (CONTRATS && estPleine()) {
+			throw new IllegalStateException("empiler: la pile est pleine");
+		}
+		if (nbElements < seuilJournal) {
+			journaliser(nbElements);
+		}
 		contenu[nbElements] = e;
-		nbElements = nbElements + 2;
+		nbElements = nbElements + 1;
+		if (CONTRATS) {
+			verifierInvariant();
+		}
 	}
 
 	/**
@@ -115,7 +258,318 @@ public class PileInt implements Cloneable {
 	 *
 	 */
 	public void depiler() {
-		nbElements = nbElements - 2;
+		if (CONTRATS && estVide()) {
+			throw new IllegalStateException("depiler: la pile est vide");
+		}
+		nbElements = nbElements - 1;
+		if (CONTRATS) {
+			verifierInvariant();
+		}
+	}
+
+	/**
+	 * Ajout au sommet de la pile d'un enregistrement de deux éléments, avec une
+	 * seule vérification de capacité.
+	 *
+	 * @param a le premier élément à ajouter
+	 * @param b le second élément à ajouter, qui devient le sommet
+	 *
+	 * @requires getNbElements() + 2 <= getNbMaxElements();
+	 * @ensures getSommet() == b;
+	 * @ensures getElement(1) == a;
+	 * @ensures (getNbElements() == \old(getNbElements()) + 2);
+	 *
+	 */
+	public void empilerFrame(int a, int b) {
+		int n = nbElements;
+		if (CONTRATS && n + 2 > nbMaxElements) {
+			throw new IllegalStateException("empilerFrame: capacité insuffisante");
+		}
+		if (n < seuilJournal) {
+			journaliserPlage(n, n + 2);
+		}
+		contenu[n] = a;
+		contenu[n + 1] = b;
+		nbElements = n + 2;
+	}
+
+	/**
+	 * Ajout au sommet de la pile d'un enregistrement de trois éléments, avec une
+	 * seule vérification de capacité.
+	 *
+	 * @param a le premier élément à ajouter
+	 * @param b le deuxième élément à ajouter
+	 * @param c le troisième élément à ajouter, qui devient le sommet
+	 *
+	 * @requires getNbElements() + 3 <= getNbMaxElements();
+	 * @ensures getSommet() == c;
+	 * @ensures getElement(1) == b;
+	 * @ensures getElement(2) == a;
+	 * @ensures (getNbElements() == \old(getNbElements()) + 3);
+	 *
+	 */
+	public void empilerFrame(int a, int b, int c) {
+		int n = nbElements;
+		if (CONTRATS && n + 3 > nbMaxElements) {
+			throw new IllegalStateException("empilerFrame: capacité insuffisante");
+		}
+		if (n < seuilJournal) {
+			journaliserPlage(n, n + 3);
+		}
+		contenu[n] = a;
+		contenu[n + 1] = b;
+		contenu[n + 2] = c;
+		nbElements = n + 3;
+	}
+
+	/**
+	 * Ajout au sommet de la pile des nb éléments du tableau spécifié à partir
+	 * de l'indice debut ; le dernier élément copié devient le sommet.
+	 *
+	 * @param elements le tableau contenant l'enregistrement
+	 * @param debut    l'indice du premier élément à ajouter
+	 * @param nb       le nombre d'éléments à ajouter
+	 *
+	 * @requires elements != null;
+	 * @requires debut >= 0 && nb >= 0 && debut + nb <= elements.length;
+	 * @requires getNbElements() + nb <= getNbMaxElements();
+	 * @ensures (\forall int i; i >= 0 && i < nb; getElement(i) == elements[debut + nb - 1 - i]);
+	 * @ensures (getNbElements() == \old(getNbElements()) + nb);
+	 *
+	 */
+	public void empilerFrame(int[] elements, int debut, int nb) {
+		int n = nbElements;
+		if (CONTRATS && (nb < 0 || n + nb > nbMaxElements)) {
+			throw new IllegalStateException("empilerFrame: capacité insuffisante");
+		}
+		if (n < seuilJournal) {
+			journaliserPlage(n, n + nb);
+		}
+		System.arraycopy(elements, debut, contenu, n, nb);
+		nbElements = n + nb;
+	}
+
+	/**
+	 * Retrait des nb éléments du sommet de la pile, en temps constant.
+	 *
+	 * @param nb le nombre d'éléments à retirer
+	 *
+	 * @requires nb >= 0;
+	 * @requires nb <= getNbElements();
+	 * @ensures (getNbElements() == \old(getNbElements()) - nb);
+	 *
+	 */
+	public void depilerFrame(int nb) {
+		if (CONTRATS && (nb < 0 || nb > nbElements)) {
+			throw new IllegalArgumentException("depilerFrame: nombre d'éléments invalide: " + nb);
+		}
+		nbElements = nbElements - nb;
+	}
+
+	/**
+	 * Ouvre un cadre (frame) : renvoie un marqueur permettant de retirer en
+	 * temps constant, par {@link #fermerFrame(int)}, tous les éléments ajoutés
+	 * après cet appel.
+	 *
+	 * @return le marqueur du cadre ouvert
+	 *
+	 * @ensures \result == getNbElements();
+	 *
+	 * @pure
+	 */
+	public int ouvrirFrame() {
+		return nbElements;
+	}
+
+	/**
+	 * Ferme un cadre : retire en temps constant tous les éléments ajoutés depuis
+	 * l'ouverture du cadre de marqueur spécifié.
+	 *
+	 * @param marqueur le marqueur renvoyé par {@link #ouvrirFrame()}
+	 *
+	 * @requires marqueur >= 0;
+	 * @requires marqueur <= getNbElements();
+	 * @ensures getNbElements() == marqueur;
+	 *
+	 */
+	public void fermerFrame(int marqueur) {
+		if (CONTRATS && (marqueur < 0 || marqueur > nbElements)) {
+			throw new IllegalArgumentException("fermerFrame: marqueur invalide: " + marqueur);
+		}
+		nbElements = marqueur;
+	}
+
+	/**
+	 * Pose une marque (point de sauvegarde) sur l'état courant de la pile. Les
+	 * marques peuvent être imbriquées ; leur coût, ainsi que celui du retour à
+	 * une marque, est proportionnel au nombre de modifications effectuées depuis
+	 * la pose et non au nombre d'éléments de la pile.
+	 *
+	 * @return l'identifiant de la marque posée
+	 *
+	 * @ensures \result == \old(getNbMarks());
+	 * @ensures getNbMarks() == \old(getNbMarks()) + 1;
+	 *
+	 */
+	public int mark() {
+		if (marques == null) {
+			marques = new int[3 * 4];
+		} else if (3 * nbMarques == marques.length) {
+			marques = Arrays.copyOf(marques, 2 * marques.length);
+		}
+		int i = 3 * nbMarques;
+		marques[i] = nbElements;
+		marques[i + 1] = tailleJournal;
+		marques[i + 2] = seuilJournal;
+		seuilJournal = Math.max(seuilJournal, nbElements);
+		return nbMarques++;
+	}
+
+	/**
+	 * Restaure l'état de la pile au moment de la pose de la marque spécifiée.
+	 * Cette marque et toutes celles posées après elle sont supprimées.
+	 *
+	 * @param mark l'identifiant de la marque à restaurer
+	 *
+	 * @requires mark >= 0;
+	 * @requires mark < getNbMarks();
+	 * @ensures getNbMarks() == mark;
+	 * @ensures getNbElements() == (nombre d'éléments lors de la pose de mark);
+	 *
+	 */
+	public void rollbackTo(int mark) {
+		if (CONTRATS) {
+			verifierMarque(mark);
+		}
+		int i = 3 * mark;
+		int fin = marques[i + 1];
+		for (int j = tailleJournal - 2; j >= fin; j -= 2) {
+			contenu[journal[j]] = journal[j + 1];
+		}
+		nbElements = marques[i];
+		tailleJournal = fin;
+		seuilJournal = marques[i + 2];
+		nbMarques = mark;
+		if (CONTRATS) {
+			verifierInvariant();
+		}
+	}
+
+	/**
+	 * Supprime la marque spécifiée et toutes celles posées après elle, en
+	 * conservant les modifications effectuées depuis leur pose.
+	 *
+	 * @param mark l'identifiant de la marque à supprimer
+	 *
+	 * @requires mark >= 0;
+	 * @requires mark < getNbMarks();
+	 * @ensures getNbMarks() == mark;
+	 * @ensures getNbElements() == \old(getNbElements());
+	 *
+	 */
+	public void commit(int mark) {
+		if (CONTRATS) {
+			verifierMarque(mark);
+		}
+		// Les modifications journalisées restent nécessaires aux marques
+		// englobantes:
+		if (mark == 0) {
+			tailleJournal = 0;
+		}
+		seuilJournal = marques[3 * mark + 2];
+		nbMarques = mark;
+	}
+
+	/**
+	 * Consultation du nombre de marques actives.
+	 *
+	 * @return nombre de marques actives
+	 *
+	 * @pure
+	 */
+	public int getNbMarks() {
+		return nbMarques;
+	}
+
+	/**
+	 * Calcule la différence permettant de passer de cette pile à la pile
+	 * spécifiée : longueur du plus long préfixe commun et éléments de la pile
+	 * spécifiée situés au-delà de ce préfixe.
+	 *
+	 * @param cible l'état à atteindre
+	 * @return le delta de cette pile vers cible
+	 *
+	 * @requires cible != null;
+	 * @ensures \result != null;
+	 * @ensures \result.getNbElementsCible() == cible.getNbElements();
+	 * @ensures \result.getLongueurPrefixe() <= getNbElements();
+	 *
+	 * @pure
+	 */
+	public PileIntDelta diff(PileInt cible) {
+		int n = Math.min(nbElements, cible.nbElements);
+		int prefixe = Arrays.mismatch(contenu, 0, n, cible.contenu, 0, n);
+		if (prefixe < 0) {
+			prefixe = n;
+		}
+		return new PileIntDelta(prefixe, Arrays.copyOfRange(cible.contenu, prefixe, cible.nbElements));
+	}
+
+	/**
+	 * Applique à cette pile un delta calculé par {@link #diff(PileInt)} à partir
+	 * d'une pile égale à celle-ci.
+	 *
+	 * @param delta le delta à appliquer
+	 *
+	 * @requires delta != null;
+	 * @requires delta.getLongueurPrefixe() <= getNbElements();
+	 * @requires delta.getNbElementsCible() <= getNbMaxElements();
+	 * @ensures getNbElements() == delta.getNbElementsCible();
+	 *
+	 */
+	public void patch(PileIntDelta delta) {
+		if (CONTRATS && (delta.getLongueurPrefixe() > nbElements || delta.getNbElementsCible() > nbMaxElements)) {
+			throw new IllegalArgumentException("Delta incompatible avec " + this + ": " + delta);
+		}
+		int debut = delta.getLongueurPrefixe();
+		int fin = delta.getNbElementsCible();
+		if (debut < seuilJournal) {
+			journaliserPlage(debut, fin);
+		}
+		System.arraycopy(delta.suffixe, 0, contenu, debut, delta.suffixe.length);
+		nbElements = fin;
+		if (CONTRATS) {
+			verifierInvariant();
+		}
+	}
+
+	private void verifierMarque(int mark) {
+		if (mark < 0 || mark >= nbMarques) {
+			throw new IllegalArgumentException("Marque invalide: " + mark + " (" + nbMarques + " marques)");
+		}
+	}
+
+	private void verifierInvariant() {
+		if (nbElements < 0 || nbElements > nbMaxElements) {
+			throw new IllegalStateException("Invariant violé: " + nbElements + "/" + nbMaxElements);
+		}
+	}
+
+	private void journaliserPlage(int debut, int fin) {
+		for (int i = debut; i < Math.min(fin, seuilJournal); i++) {
+			journaliser(i);
+		}
+	}
+
+	private void journaliser(int indice) {
+		if (journal == null) {
+			journal = new int[2 * 16];
+		} else if (tailleJournal == journal.length) {
+			journal = Arrays.copyOf(journal, 2 * journal.length);
+		}
+		journal[tailleJournal] = indice;
+		journal[tailleJournal + 1] = contenu[indice];
+		tailleJournal += 2;
 	}
 
 	/**
@@ -213,6 +667,12 @@ public class PileInt implements Cloneable {
 		}
 		PileInt p = (PileInt) o;
 		p.contenu = contenu.clone();
+		if (journal != null) {
+			p.journal = journal.clone();
+		}
+		if (marques != null) {
+			p.marques = marques.clone();
+		}
 		return p;
 	}
 
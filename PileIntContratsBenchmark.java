@@ -0,0 +1,105 @@
+package pilesimple.bench;
+
+import pilesimple.PileInt;
+
+/**
+ * Compare le coût de <code>empiler</code>, <code>getSommet</code> et
+ * <code>depiler</code> de <code>PileInt</code> avec celui d'une pile de
+ * référence sans aucune vérification de contrat.
+ *
+ * Lancé sans option, le rapport doit être proche de 1 : les vérifications
+ * désactivées sont éliminées par le JIT. Lancé avec
+ * <code>-Dpilesimple.contrats=true</code>, il mesure le coût du mode vérifié.
+ *
+ * Usage : <code>java [-Dpilesimple.contrats=true] pilesimple.bench.PileIntContratsBenchmark [taille]</code>
+ *
+ * @author Marc Champesme
+ * @version 1.8.0
+ */
+public class PileIntContratsBenchmark {
+	private static final int NB_ITERATIONS = 20;
+	private static final int NB_TOURS = 100;
+
+	/**
+	 * Pile de référence : le code de <code>PileInt</code> sans vérification,
+	 * journal d'annulation compris.
+	 */
+	private static final class PileReference {
+		private final int[] contenu;
+		private int nbElements;
+		private int seuilJournal;
+
+		PileReference(int nbMaxElements) {
+			contenu = new int[nbMaxElements];
+		}
+
+		int getSommet() {
+			return contenu[nbElements - 1];
+		}
+
+		void empiler(int e) {
+			if (nbElements < seuilJournal) {
+				throw new AssertionError("Aucune marque n'est posée");
+			}
+			contenu[nbElements] = e;
+			nbElements = nbElements + 1;
+		}
+
+		void depiler() {
+			nbElements = nbElements - 1;
+		}
+	}
+
+	private static long tourPileInt(PileInt p, int taille) {
+		long somme = 0;
+		for (int t = 0; t < NB_TOURS; t++) {
+			for (int i = 0; i < taille; i++) {
+				p.empiler(i ^ t);
+			}
+			for (int i = 0; i < taille; i++) {
+				somme += p.getSommet();
+				p.depiler();
+			}
+		}
+		return somme;
+	}
+
+	private static long tourReference(PileReference p, int taille) {
+		long somme = 0;
+		for (int t = 0; t < NB_TOURS; t++) {
+			for (int i = 0; i < taille; i++) {
+				p.empiler(i ^ t);
+			}
+			for (int i = 0; i < taille; i++) {
+				somme += p.getSommet();
+				p.depiler();
+			}
+		}
+		return somme;
+	}
+
+	public static void main(String[] args) {
+		int taille = (args.length > 0 ? Integer.parseInt(args[0]) : 100_000);
+		PileInt pile = new PileInt(taille);
+		PileReference reference = new PileReference(taille);
+		long meilleurPile = Long.MAX_VALUE;
+		long meilleurReference = Long.MAX_VALUE;
+		long controle = 0;
+		for (int i = 0; i < NB_ITERATIONS; i++) {
+			long debut = System.nanoTime();
+			controle += tourPileInt(pile, taille);
+			meilleurPile = Math.min(meilleurPile, System.nanoTime() - debut);
+			debut = System.nanoTime();
+			controle -= tourReference(reference, taille);
+			meilleurReference = Math.min(meilleurReference, System.nanoTime() - debut);
+		}
+		if (controle != 0) {
+			throw new IllegalStateException("Résultats différents");
+		}
+		double nbOperations = 3.0 * taille * NB_TOURS;
+		System.out.printf("pilesimple.contrats=%s%n", Boolean.getBoolean("pilesimple.contrats"));
+		System.out.printf("PileInt       %8.3f ns/op%n", meilleurPile / nbOperations);
+		System.out.printf("Référence     %8.3f ns/op%n", meilleurReference / nbOperations);
+		System.out.printf("Rapport       %8.3f%n", (double) meilleurPile / meilleurReference);
+	}
+}
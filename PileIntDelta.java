@@ -0,0 +1,188 @@
+package pilesimple;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Différence entre deux états successifs d'une <code>PileInt</code> : la
+ * longueur du préfixe commun aux deux états et les éléments du nouvel état
+ * situés au-delà de ce préfixe. La taille d'un delta est proportionnelle au
+ * changement et non au nombre d'éléments de la pile.
+ *
+ * Les instances sont immuables.
+ *
+ * @author Marc Champesme
+ * @version 1.8.0
+ * @invariant getLongueurPrefixe() >= 0;
+ * @invariant getLongueurSuffixe() >= 0;
+ * @see PileInt#diff(PileInt)
+ * @see PileInt#patch(PileIntDelta)
+ */
+public final class PileIntDelta {
+	private final int longueurPrefixe;
+	final int[] suffixe;
+
+	/**
+	 * Initialise un delta à partir de la longueur du préfixe commun et du
+	 * nouveau suffixe. Le tableau spécifié n'est pas copié.
+	 *
+	 * @requires longueurPrefixe >= 0;
+	 * @requires suffixe != null;
+	 */
+	PileIntDelta(int longueurPrefixe, int[] suffixe) {
+		this.longueurPrefixe = longueurPrefixe;
+		this.suffixe = suffixe;
+	}
+
+	/**
+	 * Consultation de la longueur du préfixe commun aux deux états.
+	 *
+	 * @return nombre d'éléments conservés depuis la base de la pile
+	 *
+	 * @pure
+	 */
+	public int getLongueurPrefixe() {
+		return longueurPrefixe;
+	}
+
+	/**
+	 * Consultation du nombre d'éléments à écrire au-delà du préfixe commun.
+	 *
+	 * @return nombre d'éléments du nouveau suffixe
+	 *
+	 * @pure
+	 */
+	public int getLongueurSuffixe() {
+		return suffixe.length;
+	}
+
+	/**
+	 * Consultation du nombre d'éléments de la pile après application de ce
+	 * delta.
+	 *
+	 * @return nombre d'éléments de l'état cible
+	 *
+	 * @ensures \result == getLongueurPrefixe() + getLongueurSuffixe();
+	 *
+	 * @pure
+	 */
+	public int getNbElementsCible() {
+		return longueurPrefixe + suffixe.length;
+	}
+
+	/**
+	 * Écrit ce delta sous forme binaire compacte : la longueur du préfixe, celle
+	 * du suffixe puis les éléments du suffixe.
+	 *
+	 * @param out le flux de sortie
+	 *
+	 * @requires out != null;
+	 *
+	 * @throws IOException en cas d'erreur d'écriture
+	 */
+	public void ecrire(DataOutput out) throws IOException {
+		out.writeInt(longueurPrefixe);
+		out.writeInt(suffixe.length);
+		for (int e : suffixe) {
+			out.writeInt(e);
+		}
+	}
+
+	/**
+	 * Lit un delta écrit par {@link #ecrire(DataOutput)}.
+	 *
+	 * @param in le flux d'entrée
+	 * @return le delta lu
+	 *
+	 * @requires in != null;
+	 * @ensures \result != null;
+	 *
+	 * @throws IOException en cas d'erreur de lecture ou si les données lues ne
+	 *                     représentent pas un delta
+	 */
+	public static PileIntDelta lire(DataInput in) throws IOException {
+		return lire(in, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Lit un delta écrit par {@link #ecrire(DataOutput)} et destiné à une pile
+	 * de capacité nbMaxElements.
+	 *
+	 * Le suffixe est lu dans un tableau agrandi au fil de la lecture : une
+	 * longueur erronée ou malveillante provoque une
+	 * <code>EOFException</code> à la fin du flux, et non l'allocation d'un
+	 * tableau démesuré.
+	 *
+	 * @param in            le flux d'entrée
+	 * @param nbMaxElements la capacité de la pile à laquelle le delta est
+	 *                      destiné
+	 * @return le delta lu
+	 *
+	 * @requires in != null;
+	 * @requires nbMaxElements >= 0;
+	 * @ensures \result != null;
+	 * @ensures \result.getNbElementsCible() <= nbMaxElements;
+	 *
+	 * @throws IOException en cas d'erreur de lecture ou si les données lues ne
+	 *                     représentent pas un delta applicable à une pile de
+	 *                     cette capacité
+	 */
+	public static PileIntDelta lire(DataInput in, int nbMaxElements) throws IOException {
+		int longueurPrefixe = in.readInt();
+		int longueurSuffixe = in.readInt();
+		if (longueurPrefixe < 0 || longueurSuffixe < 0 || (long) longueurPrefixe + longueurSuffixe > nbMaxElements) {
+			throw new IOException("Delta invalide: " + longueurPrefixe + "/" + longueurSuffixe);
+		}
+		int[] suffixe = new int[Math.min(longueurSuffixe, 1024)];
+		for (int i = 0; i < longueurSuffixe; i++) {
+			if (i == suffixe.length) {
+				suffixe = Arrays.copyOf(suffixe, (int) Math.min(2L * i, longueurSuffixe));
+			}
+			suffixe[i] = in.readInt();
+		}
+		return new PileIntDelta(longueurPrefixe, suffixe);
+	}
+
+	/**
+	 * Compare ce delta avec l'objet spécifié.
+	 *
+	 * @param o l'objet à comparer avec ce delta.
+	 *
+	 * @return <code>true</code> si o est un delta de même préfixe et de même
+	 *         suffixe, <code>false</code> sinon.
+	 *
+	 * @pure
+	 */
+	public boolean equals(Object o) {
+		if (!(o instanceof PileIntDelta)) {
+			return false;
+		}
+		PileIntDelta d = (PileIntDelta) o;
+		return longueurPrefixe == d.longueurPrefixe && Arrays.equals(suffixe, d.suffixe);
+	}
+
+	/**
+	 * Renvoie un code de hashage pour cette instance.
+	 *
+	 * @return un code de hashage pour cette instance.
+	 *
+	 * @pure
+	 */
+	public int hashCode() {
+		return (31 * longueurPrefixe) + Arrays.hashCode(suffixe);
+	}
+
+	/**
+	 * Renvoie une représentation de cette instance sous forme de chaîne de
+	 * caractère.
+	 *
+	 * @return une chaîne de caractères représentant cette instance.
+	 *
+	 * @pure
+	 */
+	public String toString() {
+		return "PileIntDelta(" + longueurPrefixe + "):" + Arrays.toString(suffixe);
+	}
+}
@@ -0,0 +1,133 @@
+package pilesimple;
+
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Source <code>Flow.Publisher</code> qui vide une <code>PileInt</code> par lots
+ * pris au sommet, au rythme de la demande de son abonné.
+ *
+ * Chaque lot est un tableau d'au plus <code>tailleLot</code> éléments, le
+ * sommet de pile en premier : enchaîner les lots reproduit l'ordre d'une suite
+ * de retraits. Un lot n'est retiré de la pile qu'au moment de son émission ;
+ * la pile est donc vidée exactement de ce que l'abonné a demandé. Lorsque la
+ * pile est vide, l'abonné reçoit <code>onComplete</code>.
+ *
+ * Les lots sont émis par le thread qui appelle <code>request</code>, sans
+ * jamais bloquer ; un appel de <code>request</code> depuis
+ * <code>onNext</code> ne provoque pas de récursion, l'émission étant reprise
+ * par la boucle en cours. La pile étant vidée, un seul abonné est accepté, et
+ * elle ne doit pas être modifiée par ailleurs tant que l'émission n'est pas
+ * terminée ou annulée.
+ *
+ * @author Marc Champesme
+ * @version 1.8.0
+ */
+public class PileIntEmetteur implements Flow.Publisher<int[]> {
+	private final PileInt source;
+	private final int tailleLot;
+	private final AtomicBoolean abonne = new AtomicBoolean();
+
+	/**
+	 * Initialise un émetteur des éléments de la pile spécifiée.
+	 *
+	 * @param source    la pile à vider
+	 * @param tailleLot le nombre maximal d'éléments par lot
+	 *
+	 * @requires source != null;
+	 * @requires tailleLot > 0;
+	 */
+	public PileIntEmetteur(PileInt source, int tailleLot) {
+		this.source = source;
+		this.tailleLot = tailleLot;
+	}
+
+	/**
+	 * Abonne le souscripteur spécifié à cet émetteur. Un second abonnement est
+	 * refusé par un appel de <code>onError</code>.
+	 *
+	 * @param abonnement le souscripteur
+	 *
+	 * @requires abonnement != null;
+	 */
+	public void subscribe(Flow.Subscriber<? super int[]> abonnement) {
+		Objects.requireNonNull(abonnement);
+		if (!abonne.compareAndSet(false, true)) {
+			abonnement.onSubscribe(new Flow.Subscription() {
+				public void request(long n) {
+				}
+
+				public void cancel() {
+				}
+			});
+			abonnement.onError(new IllegalStateException("Un seul abonné par émetteur"));
+			return;
+		}
+		Souscription s = new Souscription(abonnement);
+		abonnement.onSubscribe(s);
+		// Une pile vide est terminée sans attendre de demande:
+		s.emettre();
+	}
+
+	private final class Souscription implements Flow.Subscription {
+		private final Flow.Subscriber<? super int[]> abonnement;
+		private final AtomicLong demande = new AtomicLong();
+		// Nombre de demandes d'émission en cours: seul le thread qui le fait
+		// passer de 0 à 1 émet, les autres lui confient leur demande.
+		private final AtomicInteger enCours = new AtomicInteger();
+		private volatile boolean termine;
+		// Erreur d'une demande invalide, signalée par la boucle d'émission:
+		private volatile Throwable erreurDemande;
+
+		Souscription(Flow.Subscriber<? super int[]> abonnement) {
+			this.abonnement = abonnement;
+		}
+
+		public void request(long n) {
+			if (n <= 0) {
+				erreurDemande = new IllegalArgumentException("Demande invalide: " + n);
+			} else {
+				// Demande cumulée plafonnée à Long.MAX_VALUE (demande illimitée):
+				demande.getAndAccumulate(n, (a, b) -> (a + b < 0 ? Long.MAX_VALUE : a + b));
+			}
+			emettre();
+		}
+
+		public void cancel() {
+			termine = true;
+		}
+
+		void emettre() {
+			if (enCours.getAndIncrement() != 0) {
+				return;
+			}
+			int aTraiter = 1;
+			do {
+				while (!termine) {
+					if (erreurDemande != null) {
+						termine = true;
+						abonnement.onError(erreurDemande);
+					} else if (source.estVide()) {
+						termine = true;
+						abonnement.onComplete();
+					} else if (demande.get() > 0) {
+						int k = Math.min(tailleLot, source.getNbElements());
+						int[] lot = new int[k];
+						source.peek(k, lot);
+						source.depilerFrame(k);
+						if (demande.get() != Long.MAX_VALUE) {
+							demande.decrementAndGet();
+						}
+						abonnement.onNext(lot);
+					} else {
+						break;
+					}
+				}
+				aTraiter = enCours.addAndGet(-aTraiter);
+			} while (aTraiter != 0);
+		}
+	}
+}
@@ -0,0 +1,298 @@
+/**
+ *
+ */
+package pilesimple.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import test.BaseDataProviders;
+import test.RapportGraine;
+
+import pilesimple.PileInt;
+import pilesimple.PileIntEmetteur;
+import pilesimple.PileIntRecepteur;
+
+/**
+ * Tests unitaires pour les classes PileIntEmetteur et PileIntRecepteur.
+ *
+ * @author Marc Champesme
+ * @version 1.8.0
+ *
+ */
+@ExtendWith(RapportGraine.class)
+class PileIntEmetteurTest {
+	//////////////////////////////////////////////////
+	// Méthodes produisant les données de test:
+	//////////////////////////////////////////////////
+	public static IntStream intProvider() {
+		return BaseDataProviders.intProvider(1, 30);
+	}
+	//////////////////////////////////////////////////
+	// Fin des méthodes produisant les données de test
+	//////////////////////////////////////////////////
+
+	/**
+	 * Abonné qui mémorise les signaux reçus et ne demande rien de lui-même.
+	 */
+	private static class Espion implements Flow.Subscriber<int[]> {
+		Flow.Subscription souscription;
+		final List<int[]> lots = new ArrayList<int[]>();
+		boolean termine;
+		Throwable erreur;
+
+		public void onSubscribe(Flow.Subscription souscription) {
+			this.souscription = souscription;
+		}
+
+		public void onNext(int[] lot) {
+			lots.add(lot);
+		}
+
+		public void onError(Throwable erreur) {
+			this.erreur = erreur;
+		}
+
+		public void onComplete() {
+			termine = true;
+		}
+	}
+
+	private static PileInt pileRemplie(int nbElements) {
+		PileInt p = new PileInt(nbElements);
+		for (int i = 0; i < nbElements; i++) {
+			p.empiler(i);
+		}
+		return p;
+	}
+
+	/**
+	 * Vérifie que les lots sont émis selon la demande, sommet en premier, et
+	 * que seuls les lots émis sont retirés de la pile.
+	 *
+	 * @param tailleLot la taille des lots
+	 */
+	@ParameterizedTest
+	@MethodSource("intProvider")
+	public final void testEmissionSelonDemande(int tailleLot) {
+		PileInt source = pileRemplie(100);
+		PileIntEmetteur emetteur = new PileIntEmetteur(source, tailleLot);
+		Espion espion = new Espion();
+		emetteur.subscribe(espion);
+		assertTrue(espion.lots.isEmpty());
+		espion.souscription.request(2);
+		assertEquals(2, espion.lots.size());
+		assertEquals(100 - 2 * tailleLot, source.getNbElements());
+		int attendu = 99;
+		for (int[] lot : espion.lots) {
+			assertEquals(tailleLot, lot.length);
+			for (int e : lot) {
+				assertEquals(attendu--, e);
+			}
+		}
+		assertFalse(espion.termine);
+		espion.souscription.request(Long.MAX_VALUE);
+		espion.souscription.request(Long.MAX_VALUE);
+		assertTrue(source.estVide());
+		assertTrue(espion.termine);
+		assertNull(espion.erreur);
+		assertEquals((100 + tailleLot - 1) / tailleLot, espion.lots.size());
+	}
+
+	/**
+	 * Vérifie l'annulation, le refus d'une demande invalide et d'un second
+	 * abonné, et la terminaison immédiate sur une pile vide.
+	 */
+	@Test
+	public final void testSignaux() {
+		PileInt source = pileRemplie(10);
+		PileIntEmetteur emetteur = new PileIntEmetteur(source, 3);
+		Espion espion = new Espion();
+		emetteur.subscribe(espion);
+		espion.souscription.request(1);
+		espion.souscription.cancel();
+		espion.souscription.request(1);
+		assertEquals(1, espion.lots.size());
+		assertEquals(7, source.getNbElements());
+
+		Espion second = new Espion();
+		emetteur.subscribe(second);
+		assertTrue(second.erreur instanceof IllegalStateException);
+
+		Espion invalide = new Espion();
+		new PileIntEmetteur(pileRemplie(10), 3).subscribe(invalide);
+		invalide.souscription.request(0);
+		assertTrue(invalide.erreur instanceof IllegalArgumentException);
+		assertTrue(invalide.lots.isEmpty());
+
+		Espion vide = new Espion();
+		new PileIntEmetteur(new PileInt(5), 3).subscribe(vide);
+		assertTrue(vide.termine);
+	}
+
+	/**
+	 * Vérifie qu'une demande faite depuis onNext ne provoque pas de récursion.
+	 */
+	@Test
+	public final void testDemandeReentrante() {
+		PileInt source = pileRemplie(200_000);
+		int[] nbLots = new int[1];
+		new PileIntEmetteur(source, 1).subscribe(new Espion() {
+			public void onSubscribe(Flow.Subscription souscription) {
+				super.onSubscribe(souscription);
+				souscription.request(1);
+			}
+
+			public void onNext(int[] lot) {
+				nbLots[0]++;
+				souscription.request(1);
+			}
+		});
+		assertEquals(200_000, nbLots[0]);
+		assertTrue(source.estVide());
+	}
+
+	/**
+	 * Vérifie qu'une demande invalide faite depuis onNext n'est signalée
+	 * qu'après le retour de onNext, et qu'aucun lot ne suit l'erreur.
+	 */
+	@Test
+	public final void testDemandeInvalideReentrante() {
+		PileInt source = pileRemplie(10);
+		Espion espion = new Espion() {
+			public void onNext(int[] lot) {
+				super.onNext(lot);
+				souscription.request(0);
+				assertNull(erreur);
+			}
+		};
+		new PileIntEmetteur(source, 3).subscribe(espion);
+		espion.souscription.request(5);
+		assertTrue(espion.erreur instanceof IllegalArgumentException);
+		assertEquals(1, espion.lots.size());
+		assertEquals(7, source.getNbElements());
+	}
+
+	/**
+	 * Vérifie qu'un transfert par PileIntRecepteur équivaut à des retraits et
+	 * ajouts successifs, la demande étant bornée par la place disponible.
+	 *
+	 * @param tailleLot la taille des lots
+	 */
+	@ParameterizedTest
+	@MethodSource("intProvider")
+	public final void testTransfert(int tailleLot) {
+		PileInt source = pileRemplie(100);
+		PileInt attendue = new PileInt(100);
+		PileInt copie = (PileInt) source.clone();
+		while (!copie.estVide()) {
+			attendue.empiler(copie.getSommet());
+			copie.depiler();
+		}
+		PileIntRecepteur recepteur = new PileIntRecepteur(new PileInt(100), tailleLot);
+		new PileIntEmetteur(source, tailleLot).subscribe(recepteur);
+		assertTrue(recepteur.estTermine());
+		assertNull(recepteur.getErreur());
+		assertEquals(attendue.asIntBuffer(), recepteur.getPile().asIntBuffer());
+	}
+
+	/**
+	 * Vérifie que PileIntRecepteur cesse de demander lorsque sa pile est pleine
+	 * et reprend lorsque de la place est libérée.
+	 */
+	@Test
+	public final void testContrePression() {
+		PileInt source = pileRemplie(50);
+		PileIntRecepteur recepteur = new PileIntRecepteur(new PileInt(10), 4);
+		new PileIntEmetteur(source, 4).subscribe(recepteur);
+		PileInt cible = recepteur.getPile();
+		// Trois lots, dont deux éléments attendent de la place:
+		assertEquals(10, cible.getNbElements());
+		assertEquals(38, source.getNbElements());
+		long somme = 0;
+		int nbRecus = 0;
+		while (true) {
+			synchronized (recepteur) {
+				assertTrue(cible.getNbElements() <= 10);
+				while (!cible.estVide()) {
+					somme += cible.getSommet();
+					nbRecus++;
+					cible.depiler();
+				}
+				if (recepteur.estTermine()) {
+					break;
+				}
+			}
+			recepteur.reprendre();
+		}
+		assertEquals(50, nbRecus);
+		assertEquals(50 * 49 / 2, somme);
+		assertTrue(source.estVide());
+		assertNull(recepteur.getErreur());
+	}
+
+	/**
+	 * Vérifie qu'aucun élément n'est perdu lorsqu'un relais, qui transmet les
+	 * signaux sans rien savoir de PileIntRecepteur, est placé entre l'émetteur
+	 * et le récepteur, et que le dernier lot ne tient pas dans la pile cible.
+	 */
+	@Test
+	public final void testTransfertParRelais() {
+		PileInt source = pileRemplie(10);
+		PileIntRecepteur recepteur = new PileIntRecepteur(new PileInt(6), 4);
+		new PileIntEmetteur(source, 4).subscribe(new Flow.Subscriber<int[]>() {
+			public void onSubscribe(Flow.Subscription souscription) {
+				recepteur.onSubscribe(souscription);
+			}
+
+			public void onNext(int[] lot) {
+				recepteur.onNext(lot);
+			}
+
+			public void onError(Throwable erreur) {
+				recepteur.onError(erreur);
+			}
+
+			public void onComplete() {
+				recepteur.onComplete();
+			}
+		});
+		PileInt cible = recepteur.getPile();
+		assertEquals(6, cible.getNbElements());
+		assertEquals(2, source.getNbElements());
+		List<Integer> recus = new ArrayList<Integer>();
+		while (true) {
+			synchronized (recepteur) {
+				// Ordre inverse de la pile cible, i.e. ordre d'émission:
+				List<Integer> lus = new ArrayList<Integer>();
+				while (!cible.estVide()) {
+					lus.add(0, cible.getSommet());
+					cible.depiler();
+				}
+				recus.addAll(lus);
+				if (recepteur.estTermine()) {
+					break;
+				}
+			}
+			recepteur.reprendre();
+		}
+		assertNull(recepteur.getErreur());
+		assertTrue(source.estVide());
+		assertEquals(10, recus.size());
+		for (int i = 0; i < 10; i++) {
+			assertEquals(9 - i, recus.get(i));
+		}
+	}
+}
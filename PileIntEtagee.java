@@ -0,0 +1,314 @@
+package pilesimple;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Une pile d'entiers dont seuls les éléments proches du sommet sont conservés
+ * en mémoire, les plus anciens étant déversés sur disque. La mémoire occupée
+ * est bornée et la capacité n'est limitée que par la place disponible dans le
+ * fichier de débordement.
+ *
+ * Les éléments sont regroupés en blocs de tailleBloc éléments ; la mémoire
+ * contient au plus nbBlocs blocs consécutifs, dont celui du sommet. Lorsqu'un
+ * ajout nécessite un bloc de plus, le bloc le plus ancien en mémoire est écrit
+ * dans le fichier par un thread d'entrées/sorties, sans attendre la fin de
+ * l'écriture. Lorsque les retraits ont libéré au moins la moitié des blocs,
+ * le bloc suivant sur disque est lu par anticipation ; un retrait ne doit
+ * attendre une lecture que si le sommet atteint ce bloc avant la fin de sa
+ * lecture. Au plus nbBlocs écritures sont en attente : au-delà, un ajout
+ * attend la fin de la plus ancienne.
+ *
+ * Le fichier est supprimé à la fermeture de la pile. Une erreur
+ * d'entrée/sortie survenue dans le thread d'entrées/sorties est signalée par
+ * l'opération suivante.
+ *
+ * @author Marc Champesme
+ * @version 1.8.0
+ * @invariant getNbElements() >= 0;
+ * @invariant getNbBlocsSurDisque() >= 0;
+ */
+public class PileIntEtagee implements Closeable {
+	private final FileChannel fichier;
+	private final int tailleBloc;
+	// Le bloc numéro b est rangé dans anneau[b % nbBlocs]:
+	private final int[][] anneau;
+	private final ExecutorService entreesSorties;
+	// Écritures soumises, de la plus ancienne à la plus récente:
+	private final ArrayDeque<Future<?>> ecritures = new ArrayDeque<Future<?>>();
+	private long nbElements;
+	// Plus petit numéro de bloc en mémoire, les blocs précédents sont sur
+	// disque:
+	private long premierBloc;
+	// Lecture anticipée du bloc premierBloc - 1, null si aucune:
+	private Future<ByteBuffer> prechargement;
+	private long nbAttentes;
+	private volatile IOException erreur;
+
+	/**
+	 * Crée une pile vide gardant en mémoire quatre blocs de 4096 éléments.
+	 *
+	 * @param fichier le fichier de débordement, créé ou écrasé
+	 *
+	 * @throws IOException en cas d'erreur d'ouverture du fichier
+	 */
+	public PileIntEtagee(Path fichier) throws IOException {
+		this(fichier, 4096, 4);
+	}
+
+	/**
+	 * Crée une pile vide gardant en mémoire au plus nbBlocs blocs de tailleBloc
+	 * éléments.
+	 *
+	 * @param fichier    le fichier de débordement, créé ou écrasé
+	 * @param tailleBloc le nombre d'éléments par bloc
+	 * @param nbBlocs    le nombre de blocs conservés en mémoire
+	 *
+	 * @requires fichier != null;
+	 * @requires tailleBloc > 0;
+	 * @requires nbBlocs >= 2;
+	 * @ensures estVide();
+	 *
+	 * @throws IOException en cas d'erreur d'ouverture du fichier
+	 */
+	public PileIntEtagee(Path fichier, int tailleBloc, int nbBlocs) throws IOException {
+		this.fichier = FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+		this.tailleBloc = tailleBloc;
+		this.anneau = new int[nbBlocs][tailleBloc];
+		// Un seul thread: les lectures sont exécutées après les écritures
+		// soumises avant elles.
+		this.entreesSorties = Executors.newSingleThreadExecutor(r -> {
+			Thread t = new Thread(r, "PileIntEtagee-" + fichier.getFileName());
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	/**
+	 * Consultation du nombre d'éléments présents dans la pile.
+	 *
+	 * @return nombre d'éléments de la pile
+	 *
+	 * @pure
+	 */
+	public long getNbElements() {
+		return nbElements;
+	}
+
+	/**
+	 * Consultation du nombre de blocs actuellement sur disque.
+	 *
+	 * @return nombre de blocs sur disque
+	 *
+	 * @pure
+	 */
+	public long getNbBlocsSurDisque() {
+		return premierBloc;
+	}
+
+	/**
+	 * Consultation du nombre de retraits ayant dû attendre la lecture d'un bloc.
+	 *
+	 * @return nombre de lectures attendues depuis la création de la pile
+	 *
+	 * @pure
+	 */
+	public long getNbAttentes() {
+		return nbAttentes;
+	}
+
+	/**
+	 * La pile est-elle vide ?
+	 *
+	 * @return true si la pile est vide, false sinon.
+	 *
+	 * @pure
+	 */
+	public boolean estVide() {
+		return nbElements == 0;
+	}
+
+	/**
+	 * Consultation du sommet de pile
+	 *
+	 * @return le sommet de pile
+	 *
+	 * @requires !estVide();
+	 *
+	 * @pure
+	 */
+	public int getSommet() {
+		long i = nbElements - 1;
+		return anneau[(int) ((i / tailleBloc) % anneau.length)][(int) (i % tailleBloc)];
+	}
+
+	/**
+	 * Ajout au sommet de la pile (i.e. push).
+	 *
+	 * @param e L'élement à ajouter
+	 *
+	 * @ensures !estVide();
+	 * @ensures getSommet() == e;
+	 * @ensures (getNbElements() == \old(getNbElements()) + 1);
+	 *
+	 * @throws IOException si une écriture précédente a échoué
+	 */
+	public void empiler(int e) throws IOException {
+		verifierErreur();
+		long bloc = nbElements / tailleBloc;
+		if (nbElements % tailleBloc == 0) {
+			if (bloc - premierBloc == anneau.length) {
+				deverser();
+			} else if (prechargement != null && bloc == premierBloc - 1 + anneau.length) {
+				// Le bloc lu par anticipation occuperait la place du nouveau
+				// bloc:
+				prechargement.cancel(false);
+				prechargement = null;
+			}
+		}
+		anneau[(int) (bloc % anneau.length)][(int) (nbElements % tailleBloc)] = e;
+		nbElements++;
+	}
+
+	/**
+	 * Retrait de l'élement au sommet de la pile (i.e. pop).
+	 *
+	 * @requires !estVide();
+	 * @ensures (getNbElements() == \old(getNbElements()) - 1);
+	 *
+	 * @throws IOException en cas d'erreur de lecture, la pile restant alors
+	 *                     inchangée, ou si une écriture précédente a échoué
+	 */
+	public void depiler() throws IOException {
+		verifierErreur();
+		long reste = nbElements - 1;
+		if (reste == 0) {
+			nbElements = 0;
+			return;
+		}
+		long blocSommet = (reste - 1) / tailleBloc;
+		if (blocSommet < premierBloc || (prechargement != null && prechargement.isDone())) {
+			installer();
+		}
+		// Le retrait n'est effectif qu'une fois le nouveau sommet en mémoire:
+		// en cas d'échec de la lecture, la pile reste inchangée.
+		nbElements = reste;
+		if (prechargement == null && premierBloc > 0 && 2 * (blocSommet - premierBloc + 1) <= anneau.length) {
+			prechargement = lireBloc(premierBloc - 1);
+		}
+	}
+
+	/**
+	 * Attend la fin des écritures en cours, puis ferme et supprime le fichier
+	 * de débordement.
+	 *
+	 * @throws IOException en cas d'erreur d'entrée/sortie
+	 */
+	public void close() throws IOException {
+		entreesSorties.shutdown();
+		try {
+			entreesSorties.awaitTermination(1, TimeUnit.MINUTES);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		} finally {
+			fichier.close();
+		}
+		verifierErreur();
+	}
+
+	/**
+	 * Renvoie une représentation de cette instance sous forme de chaîne de
+	 * caractère.
+	 *
+	 * @return une chaîne de caractères représentant cette instance.
+	 *
+	 * @pure
+	 */
+	public String toString() {
+		return "PileIntEtagee(" + nbElements + ", " + premierBloc + " blocs sur disque)";
+	}
+
+	/**
+	 * Écrit le bloc premierBloc sur disque et libère sa place en mémoire.
+	 */
+	private void deverser() throws IOException {
+		while (!ecritures.isEmpty() && ecritures.peekFirst().isDone()) {
+			ecritures.removeFirst();
+		}
+		if (ecritures.size() >= anneau.length) {
+			attendre(ecritures.removeFirst());
+		}
+		ByteBuffer buf = ByteBuffer.allocate(tailleBloc * Integer.BYTES);
+		buf.asIntBuffer().put(anneau[(int) (premierBloc % anneau.length)]);
+		long position = premierBloc * tailleBloc * Integer.BYTES;
+		ecritures.addLast(entreesSorties.submit(() -> {
+			try {
+				while (buf.hasRemaining()) {
+					fichier.write(buf, position + buf.position());
+				}
+			} catch (IOException ex) {
+				erreur = ex;
+			}
+		}));
+		premierBloc++;
+	}
+
+	private Future<ByteBuffer> lireBloc(long bloc) {
+		return entreesSorties.submit(() -> {
+			ByteBuffer buf = ByteBuffer.allocate(tailleBloc * Integer.BYTES);
+			long position = bloc * tailleBloc * Integer.BYTES;
+			while (buf.hasRemaining()) {
+				if (fichier.read(buf, position + buf.position()) < 0) {
+					throw new EOFException("Bloc " + bloc + " absent du fichier");
+				}
+			}
+			return buf.flip();
+		});
+	}
+
+	/**
+	 * Ramène en mémoire le bloc premierBloc - 1, en attendant si nécessaire la
+	 * fin de sa lecture.
+	 */
+	private void installer() throws IOException {
+		Future<ByteBuffer> lecture = (prechargement != null ? prechargement : lireBloc(premierBloc - 1));
+		prechargement = null;
+		if (!lecture.isDone()) {
+			nbAttentes++;
+		}
+		ByteBuffer buf = attendre(lecture);
+		premierBloc--;
+		buf.asIntBuffer().get(anneau[(int) (premierBloc % anneau.length)]);
+	}
+
+	private static <T> T attendre(Future<T> operation) throws IOException {
+		try {
+			return operation.get();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Attente d'une entrée/sortie interrompue");
+		} catch (ExecutionException ex) {
+			throw (ex.getCause() instanceof IOException ? (IOException) ex.getCause() : new IOException(ex.getCause()));
+		}
+	}
+
+	private void verifierErreur() throws IOException {
+		IOException ex = erreur;
+		if (ex != null) {
+			throw ex;
+		}
+	}
+}
@@ -0,0 +1,86 @@
+package pilesimple.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import pilesimple.PileIntEtagee;
+
+/**
+ * Mesure de la latence des retraits d'une <code>PileIntEtagee</code> dont la
+ * plupart des blocs ont été déversés sur disque. La pile est remplie puis
+ * entièrement vidée ; les retraits qui amènent le sommet dans un nouveau bloc
+ * (frontière de déversement) sont mesurés à part. Chaque retrait est suivi
+ * d'un travail simulé de durée fixe, qui laisse plus ou moins de temps à la
+ * lecture anticipée pour aboutir.
+ *
+ * Usage : <code>java pilesimple.bench.PileIntEtageeBenchmark [nbElements
+ * [tailleBloc [nbBlocs [travail(ns)...]]]]</code>
+ *
+ * @author Marc Champesme
+ * @version 1.8.0
+ */
+public class PileIntEtageeBenchmark {
+	// Empêche l'élimination des résultats par le JIT:
+	private static volatile long puits;
+
+	private static void travailler(long nanos) {
+		long fin = System.nanoTime() + nanos;
+		while (System.nanoTime() < fin) {
+			Thread.onSpinWait();
+		}
+	}
+
+	private static void mesurer(Path fichier, int nbElements, int tailleBloc, int nbBlocs, long travail)
+			throws IOException {
+		HistogrammeLatence frontiere = new HistogrammeLatence();
+		HistogrammeLatence autres = new HistogrammeLatence();
+		long nbAttentes;
+		long controle = 0;
+		try (PileIntEtagee p = new PileIntEtagee(fichier, tailleBloc, nbBlocs)) {
+			for (int i = 0; i < nbElements; i++) {
+				p.empiler(i);
+			}
+			while (!p.estVide()) {
+				long debut = System.nanoTime();
+				p.depiler();
+				if (!p.estVide()) {
+					controle += p.getSommet();
+				}
+				long duree = System.nanoTime() - debut;
+				if (p.getNbElements() % tailleBloc == 0) {
+					frontiere.enregistrer(duree);
+				} else {
+					autres.enregistrer(duree);
+				}
+				travailler(travail);
+			}
+			nbAttentes = p.getNbAttentes();
+		}
+		puits = controle;
+		System.out.printf("travail %d ns, %d retraits ont attendu une lecture (latences en ns)%n", travail,
+				nbAttentes);
+		System.out.printf("  frontière: %s%n", frontiere);
+		System.out.printf("  autres:    %s%n", autres);
+	}
+
+	public static void main(String[] args) throws IOException {
+		int nbElements = (args.length > 0 ? Integer.parseInt(args[0]) : 4_000_000);
+		int tailleBloc = (args.length > 1 ? Integer.parseInt(args[1]) : 4096);
+		int nbBlocs = (args.length > 2 ? Integer.parseInt(args[2]) : 4);
+		long[] travaux = { 0, 100, 1000 };
+		if (args.length > 3) {
+			travaux = new long[args.length - 3];
+			for (int i = 3; i < args.length; i++) {
+				travaux[i - 3] = Long.parseLong(args[i]);
+			}
+		}
+		Path fichier = Files.createTempFile("pile-etagee", ".blocs");
+		System.out.printf("%d éléments, blocs de %d éléments, %d blocs en mémoire%n", nbElements, tailleBloc,
+				nbBlocs);
+		for (long travail : travaux) {
+			mesurer(fichier, nbElements, tailleBloc, nbBlocs, travail);
+		}
+		Files.deleteIfExists(fichier);
+	}
+}
@@ -0,0 +1,111 @@
+/**
+ *
+ */
+package pilesimple.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import test.BaseDataProviders;
+import test.RapportGraine;
+
+import pilesimple.PileInt;
+import pilesimple.PileIntEtagee;
+
+/**
+ * Tests unitaires pour la classe PileIntEtagee.
+ *
+ * @author Marc Champesme
+ * @version 1.8.0
+ *
+ */
+@ExtendWith(RapportGraine.class)
+class PileIntEtageeTest {
+	//////////////////////////////////////////////////
+	// Méthodes produisant les données de test:
+	//////////////////////////////////////////////////
+	public static Stream<Arguments> tailleBlocEtNbBlocsProvider() {
+		return Stream.of(Arguments.of(1, 2), Arguments.of(3, 2), Arguments.of(4, 3), Arguments.of(8, 4),
+				Arguments.of(5, 7));
+	}
+	//////////////////////////////////////////////////
+	// Fin des méthodes produisant les données de test
+	//////////////////////////////////////////////////
+
+	@TempDir
+	Path repertoire;
+
+	/**
+	 * Des ajouts et retraits aléatoires, par vagues franchissant de nombreuses
+	 * frontières de blocs, donnent les mêmes sommets qu'une PileInt.
+	 */
+	@ParameterizedTest
+	@MethodSource("tailleBlocEtNbBlocsProvider")
+	public final void testCommePileInt(int tailleBloc, int nbBlocs) throws IOException {
+		SplittableRandom rand = new SplittableRandom(BaseDataProviders.getGraine());
+		PileInt modele = new PileInt(100_000);
+		Path fichier = repertoire.resolve("debordement");
+		try (PileIntEtagee self = new PileIntEtagee(fichier, tailleBloc, nbBlocs)) {
+			for (int vague = 0; vague < 40; vague++) {
+				// Vagues alternativement croissantes et décroissantes:
+				int probaEmpiler = (vague % 2 == 0 ? 70 : 30);
+				for (int i = 0; i < 200; i++) {
+					if (!modele.estVide() && rand.nextInt(100) >= probaEmpiler) {
+						assertEquals(modele.getSommet(), self.getSommet());
+						self.depiler();
+						modele.depiler();
+					} else {
+						int e = rand.nextInt();
+						self.empiler(e);
+						modele.empiler(e);
+					}
+					assertEquals(modele.getNbElements(), self.getNbElements());
+					if (!modele.estVide()) {
+						assertEquals(modele.getSommet(), self.getSommet());
+					}
+				}
+			}
+			while (!modele.estVide()) {
+				assertEquals(modele.getSommet(), self.getSommet());
+				self.depiler();
+				modele.depiler();
+			}
+			assertTrue(self.estVide());
+			assertEquals(0, self.getNbBlocsSurDisque());
+		}
+		assertFalse(Files.exists(fichier));
+	}
+
+	/**
+	 * La mémoire reste bornée : au-delà de nbBlocs blocs, les blocs les plus
+	 * anciens sont sur disque.
+	 */
+	@Test
+	public final void testDeversement() throws IOException {
+		try (PileIntEtagee self = new PileIntEtagee(repertoire.resolve("debordement"), 10, 3)) {
+			for (int i = 0; i < 1000; i++) {
+				self.empiler(i);
+			}
+			assertEquals(97, self.getNbBlocsSurDisque());
+			for (int i = 999; i >= 0; i--) {
+				assertEquals(i, self.getSommet());
+				self.depiler();
+			}
+			assertTrue(self.estVide());
+		}
+	}
+}
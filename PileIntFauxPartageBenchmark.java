@@ -0,0 +1,91 @@
+package pilesimple.bench;
+
+import java.lang.invoke.VarHandle;
+import java.util.function.IntFunction;
+
+import pilesimple.PileInt;
+import pilesimple.PileIntIsolee;
+
+/**
+ * Mesure de l'effet du faux partage : chaque thread effectue des ajouts et
+ * retraits sur sa propre pile, sans aucune synchronisation, les piles étant
+ * toutes allouées consécutivement par le thread principal. Le débit total est
+ * comparé entre <code>PileInt</code>, dont les en-têtes voisins partagent des
+ * lignes de cache, et <code>PileIntIsolee</code>.
+ *
+ * Usage : <code>java pilesimple.bench.PileIntFauxPartageBenchmark [nbThreads
+ * [nbOperations]]</code>
+ *
+ * @author Marc Champesme
+ * @version 1.8.0
+ */
+public class PileIntFauxPartageBenchmark {
+	private static final int CAPACITE = 4;
+	private static final int NB_ITERATIONS = 5;
+
+	// Empêche l'élimination des résultats par le JIT:
+	private static volatile long puits;
+
+	private static long charger(PileInt p, int nbOperations) {
+		long controle = 0;
+		for (int i = 0; i < nbOperations; i++) {
+			p.empiler(i);
+			// Barrière du compilateur seulement (sans coût sur x86): empêche le
+			// JIT de fusionner les écritures de nbElements des deux opérations.
+			VarHandle.releaseFence();
+			controle += p.getSommet();
+			p.depiler();
+			VarHandle.releaseFence();
+		}
+		return controle;
+	}
+
+	/**
+	 * Exécute nbOperations ajouts-retraits dans chacun des nbThreads threads et
+	 * renvoie le débit total obtenu en opérations par seconde.
+	 */
+	private static double mesurer(IntFunction<PileInt> fabrique, int nbThreads, int nbOperations)
+			throws InterruptedException {
+		PileInt[] piles = new PileInt[nbThreads];
+		for (int t = 0; t < nbThreads; t++) {
+			piles[t] = fabrique.apply(CAPACITE);
+		}
+		Thread[] threads = new Thread[nbThreads];
+		long[] controles = new long[nbThreads];
+		for (int t = 0; t < nbThreads; t++) {
+			int numero = t;
+			threads[t] = new Thread(() -> controles[numero] = charger(piles[numero], nbOperations));
+		}
+		long debut = System.nanoTime();
+		for (Thread th : threads) {
+			th.start();
+		}
+		for (Thread th : threads) {
+			th.join();
+		}
+		long duree = System.nanoTime() - debut;
+		long total = 0;
+		for (long c : controles) {
+			total += c;
+		}
+		puits = total;
+		return (double) nbThreads * nbOperations * 1e9 / duree;
+	}
+
+	private static void executer(String nom, IntFunction<PileInt> fabrique, int nbThreads, int nbOperations)
+			throws InterruptedException {
+		double meilleur = 0;
+		for (int i = 0; i < NB_ITERATIONS; i++) {
+			meilleur = Math.max(meilleur, mesurer(fabrique, nbThreads, nbOperations));
+		}
+		System.out.printf("%-16s %d threads %14.0f ops/s%n", nom, nbThreads, meilleur);
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		int nbThreads = (args.length > 0 ? Integer.parseInt(args[0])
+				: Runtime.getRuntime().availableProcessors());
+		int nbOperations = (args.length > 1 ? Integer.parseInt(args[1]) : 50_000_000);
+		executer("PileInt", PileInt::new, nbThreads, nbOperations);
+		executer("PileIntIsolee", PileIntIsolee::new, nbThreads, nbOperations);
+	}
+}
@@ -0,0 +1,262 @@
+package pilesimple;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Un instantané immuable d'une <code>PileInt</code>, obtenu par
+ * {@link PileInt#freeze()} : mêmes éléments, même capacité maximale, sans
+ * aucune opération de modification.
+ *
+ * Le code de hachage est calculé une seule fois, à la construction, avec la
+ * même formule que {@link PileInt#hashCode()} : un instantané et la pile dont
+ * il est issu ont le même code de hachage tant que celle-ci n'est pas
+ * modifiée. La représentation textuelle est calculée au premier appel de
+ * <code>toString</code> puis conservée.
+ *
+ * Tous les champs déterminant le contenu sont <code>final</code> : un
+ * instantané peut être publié par une simple affectation (champ non
+ * <code>volatile</code>, collection non synchronisée) et lu par plusieurs
+ * threads sans synchronisation.
+ *
+ * @author Marc Champesme
+ * @version 1.8.0
+ * @invariant (0 <= getNbElements()) && (getNbElements() <= getNbMaxElements());
+ */
+public final class PileIntFigee {
+	// Exactement les éléments de la pile, de la base vers le sommet:
+	private final int[] elements;
+	private final int nbMaxElements;
+	private final int hash;
+	// Calculée au premier appel de toString. Un accès concurrent peut la
+	// calculer plusieurs fois, mais jamais en observer une partie: String est
+	// immuable.
+	private String chaine;
+
+	/**
+	 * Initialise un instantané de la pile spécifiée.
+	 *
+	 * @param p la pile à copier
+	 *
+	 * @requires p != null;
+	 * @ensures estCopieDe(p);
+	 * @ensures hashCode() == p.hashCode();
+	 */
+	PileIntFigee(PileInt p) {
+		this.elements = new int[p.getNbElements()];
+		p.asIntBuffer().get(elements);
+		this.nbMaxElements = p.getNbMaxElements();
+		int code = (elements.length * 31) + nbMaxElements;
+		for (int e : elements) {
+			code = (31 * code) + e;
+		}
+		this.hash = code;
+	}
+
+	/**
+	 * Consultation du nombre maximal d'élément de la pile copiée.
+	 *
+	 * @return capacité maximale de la pile copiée
+	 *
+	 * @pure
+	 */
+	public int getNbMaxElements() {
+		return nbMaxElements;
+	}
+
+	/**
+	 * Consultation du nombre d'éléments présents dans la pile.
+	 *
+	 * @return nombre d'éléments de la pile
+	 *
+	 * @pure
+	 */
+	public int getNbElements() {
+		return elements.length;
+	}
+
+	/**
+	 * Consultation du sommet de pile
+	 *
+	 * @return le sommet de pile
+	 *
+	 * @requires !estVide();
+	 *
+	 * @pure
+	 */
+	public int getSommet() {
+		return elements[elements.length - 1];
+	}
+
+	/**
+	 * Consultation de l'élément situé à la profondeur spécifiée.
+	 *
+	 * @param profondeur la distance au sommet (0 pour le sommet)
+	 * @return l'élément situé à la profondeur spécifiée
+	 *
+	 * @requires profondeur >= 0;
+	 * @requires profondeur < getNbElements();
+	 * @ensures (profondeur == 0) ==> (\result == getSommet());
+	 *
+	 * @pure
+	 */
+	public int getElement(int profondeur) {
+		return elements[elements.length - 1 - profondeur];
+	}
+
+	/**
+	 * Copie les k éléments du sommet de la pile dans le tableau spécifié :
+	 * dest[0] reçoit le sommet, dest[i] l'élément de profondeur i.
+	 *
+	 * @param k    le nombre d'éléments à copier
+	 * @param dest le tableau destination
+	 *
+	 * @requires k >= 0;
+	 * @requires k <= getNbElements();
+	 * @requires dest != null;
+	 * @requires dest.length >= k;
+	 * @ensures (\forall int i; i >= 0 && i < k; dest[i] == getElement(i));
+	 *
+	 * @pure
+	 */
+	public void peek(int k, int[] dest) {
+		int sommet = elements.length - 1;
+		for (int i = 0; i < k; i++) {
+			dest[i] = elements[sommet - i];
+		}
+	}
+
+	/**
+	 * Renvoie une vue en lecture seule des éléments de la pile, sans copie : la
+	 * position 0 de la vue correspond à la base de la pile.
+	 *
+	 * @return une vue en lecture seule des éléments de la pile
+	 *
+	 * @ensures \result.isReadOnly();
+	 * @ensures \result.remaining() == getNbElements();
+	 * @ensures (\forall int i; i >= 0 && i < getNbElements();
+	 *          \result.get(getNbElements() - 1 - i) == getElement(i));
+	 *
+	 * @pure
+	 */
+	public IntBuffer asIntBuffer() {
+		return IntBuffer.wrap(elements).asReadOnlyBuffer();
+	}
+
+	/**
+	 * La pile est-elle pleine ?
+	 *
+	 * @return true si la pile est pleine (capacité atteinte), false sinon.
+	 *
+	 * @pure
+	 */
+	public boolean estPleine() {
+		return elements.length == nbMaxElements;
+	}
+
+	/**
+	 * La pile est-elle vide ?
+	 *
+	 * @return true si la pile est vide, false sinon.
+	 *
+	 * @pure
+	 */
+	public boolean estVide() {
+		return elements.length == 0;
+	}
+
+	/**
+	 * Cet instantané a-t-il le même contenu que la pile spécifiée ?
+	 *
+	 * @param p la pile à comparer
+	 * @return true si p a les mêmes éléments et la même capacité maximale
+	 *
+	 * @requires p != null;
+	 * @ensures \result ==> (hashCode() == p.hashCode());
+	 *
+	 * @pure
+	 */
+	public boolean estCopieDe(PileInt p) {
+		if (p.getNbElements() != elements.length || p.getNbMaxElements() != nbMaxElements) {
+			return false;
+		}
+		for (int i = 0; i < elements.length; i++) {
+			if (p.getElement(elements.length - 1 - i) != elements[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Renvoie une nouvelle <code>PileInt</code> modifiable de même contenu que
+	 * cet instantané.
+	 *
+	 * @return une pile dont cet instantané est une copie
+	 *
+	 * @ensures \result != null;
+	 * @ensures estCopieDe(\result);
+	 *
+	 * @pure
+	 */
+	public PileInt degeler() {
+		return new PileInt(Arrays.copyOf(elements, nbMaxElements), elements.length);
+	}
+
+	/**
+	 * Renvoie true si et seulement si le paramètre est un instantané de même
+	 * contenu que cette instance.
+	 *
+	 * @param o l'objet à comparer
+	 * @return true si o est un instantané de même contenu
+	 *
+	 * @pure
+	 */
+	public boolean equals(Object o) {
+		if (o == this) {
+			return true;
+		}
+		if (!(o instanceof PileIntFigee)) {
+			return false;
+		}
+		PileIntFigee p = (PileIntFigee) o;
+		return hash == p.hash && nbMaxElements == p.nbMaxElements && Arrays.equals(elements, p.elements);
+	}
+
+	/**
+	 * Renvoie le code de hachage calculé à la construction.
+	 *
+	 * @return un code de hashage pour cette instance.
+	 *
+	 * @pure
+	 */
+	public int hashCode() {
+		return hash;
+	}
+
+	/**
+	 * Renvoie une représentation de cette instance sous forme de chaîne de
+	 * caractère, identique à celle de la pile copiée.
+	 *
+	 * @return une chaîne de caractères représentant cette instance.
+	 *
+	 * @pure
+	 */
+	public String toString() {
+		String s = chaine;
+		if (s == null) {
+			s = construireChaine();
+			chaine = s;
+		}
+		return s;
+	}
+
+	private String construireChaine() {
+		StringBuilder str = new StringBuilder("PileInt(").append(elements.length).append('/').append(nbMaxElements)
+				.append("):[");
+		for (int e : elements) {
+			str.append(e).append(' ');
+		}
+		return str.append(']').toString();
+	}
+}
@@ -0,0 +1,45 @@
+package pilesimple;
+
+/**
+ * Une <code>PileInt</code> dont la disposition en mémoire évite le faux
+ * partage de lignes de cache lorsque de nombreuses piles, allouées les unes à
+ * la suite des autres, sont chacune modifiée par un thread différent.
+ *
+ * Les champs de <code>PileInt</code> (<code>nbElements</code>, le journal et
+ * ses compteurs) sont suivis de 64 octets de bourrage, et le tableau des
+ * éléments de 64 octets inutilisés : ni l'en-tête ni les éléments d'une pile ne
+ * partagent de ligne de cache avec l'objet alloué juste après. L'annotation
+ * <code>jdk.internal.vm.annotation.Contended</code> n'est pas utilisable hors
+ * du JDK sans option de la JVM, d'où le bourrage manuel. Un ramasse-miettes
+ * peut toutefois déplacer la pile et son tableau : l'isolement n'est garanti
+ * que vis-à-vis des objets voisins dans l'ordre d'allocation.
+ *
+ * @author Marc Champesme
+ * @version 1.8.0
+ * @invariant (0 <= getNbElements()) && (getNbElements() <= getNbMaxElements());
+ */
+public class PileIntIsolee extends PileInt {
+	/**
+	 * Nombre de cases inutilisées en fin de tableau (64 octets).
+	 */
+	private static final int BOURRAGE_TABLEAU = 16;
+
+	// Bourrage après les champs de PileInt, placés avant ceux de la sous-classe:
+	long p00, p01, p02, p03, p04, p05, p06, p07;
+
+	/**
+	 * Initialise une pile vide avec la capacité maximale spécifiée.
+	 *
+	 * @param nbMaxElements la capacité maximale de la pile
+	 *
+	 * @requires nbMaxElements >= 0;
+	 * @requires nbMaxElements < Integer.MAX_VALUE - 16;
+	 * @ensures estVide();
+	 * @ensures (getNbMaxElements() == nbMaxElements);
+	 * @ensures (getNbElements() == 0);
+	 *
+	 */
+	public PileIntIsolee(int nbMaxElements) {
+		super(nbMaxElements, BOURRAGE_TABLEAU);
+	}
+}
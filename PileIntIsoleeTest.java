@@ -0,0 +1,71 @@
+/**
+ *
+ */
+package pilesimple.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import test.BaseDataProviders;
+import test.RapportGraine;
+
+import pilesimple.PileInt;
+import pilesimple.PileIntIsolee;
+
+/**
+ * Tests unitaires pour la classe PileIntIsolee.
+ *
+ * @author Marc Champesme
+ * @version 1.8.0
+ *
+ */
+@ExtendWith(RapportGraine.class)
+class PileIntIsoleeTest {
+	//////////////////////////////////////////////////
+	// Méthodes produisant les données de test:
+	//////////////////////////////////////////////////
+	public static IntStream intProvider() {
+		return BaseDataProviders.intProvider(0, 30);
+	}
+	//////////////////////////////////////////////////
+	// Fin des méthodes produisant les données de test
+	//////////////////////////////////////////////////
+
+	/**
+	 * Vérifie qu'une PileIntIsolee se comporte comme une PileInt de même
+	 * capacité, le bourrage du tableau restant inaccessible.
+	 *
+	 * @param nbMaxElements la capacité des piles
+	 */
+	@ParameterizedTest
+	@MethodSource("intProvider")
+	public final void testCommePileInt(int nbMaxElements) {
+		PileIntIsolee self = new PileIntIsolee(nbMaxElements);
+		PileInt reference = new PileInt(nbMaxElements);
+		assertEquals(nbMaxElements, self.getNbMaxElements());
+		assertEquals(reference, self);
+		while (!self.estPleine()) {
+			self.empiler(self.getNbElements());
+			reference.empiler(reference.getNbElements());
+			assertEquals(reference, self);
+			assertEquals(reference.hashCode(), self.hashCode());
+			assertEquals(reference.toString(), self.toString());
+		}
+		assertEquals(nbMaxElements, self.getNbElements());
+		assertEquals(nbMaxElements, self.asIntBuffer().remaining());
+		assertEquals(nbMaxElements, self.asIntBuffer().capacity());
+		Object copie = self.clone();
+		assertTrue(copie instanceof PileIntIsolee);
+		assertEquals(self, copie);
+		while (!self.estVide()) {
+			self.depiler();
+		}
+		assertEquals(reference, copie);
+	}
+}
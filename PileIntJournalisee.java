@@ -0,0 +1,430 @@
+package pilesimple;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Une pile d'entiers de taille bornée rendue durable par un journal en ajout
+ * seul (write-ahead log). Chaque ajout ou retrait est enregistré dans le
+ * journal avant d'être appliqué à une <code>PileInt</code> en mémoire.
+ *
+ * Les écritures sur disque sont regroupées (group commit) : le journal n'est
+ * forcé sur le support qu'après nbEcrituresParSync enregistrements ou lorsque
+ * delaiSyncMillis se sont écoulées depuis le dernier forçage, le délai étant
+ * vérifié à chaque modification. Les modifications effectuées depuis le
+ * dernier forçage peuvent être perdues en cas de panne ; la méthode
+ * {@link #synchroniser()} permet de les rendre durables immédiatement.
+ *
+ * Lorsque le journal dépasse tailleMaxJournal octets, il est compacté : une
+ * image de la pile est écrite dans un nouveau fichier, puis un nouveau journal
+ * vide est ouvert. Le répertoire contient au plus une image et un journal :
+ *
+ * <pre>
+ * pile.img          génération g, capacité, nombre d'éléments, éléments
+ * journal-g.log     en-tête (nombre magique, génération g, capacité), puis
+ *                   enregistrements postérieurs à l'image
+ * </pre>
+ *
+ * À l'ouverture, l'image et l'en-tête du journal doivent correspondre à la
+ * capacité demandée, et chaque enregistrement rejoué doit respecter le contrat
+ * de la pile (pas de retrait d'une pile vide ni d'ajout à une pile pleine) ;
+ * sinon le journal est considéré comme corrompu.
+ *
+ * @author Marc Champesme
+ * @version 1.8.0
+ * @invariant (0 <= getNbElements()) && (getNbElements() <= getNbMaxElements());
+ */
+public class PileIntJournalisee implements Closeable {
+	private static final byte EMPILER = 1;
+	private static final byte DEPILER = 2;
+	private static final int TAILLE_MAX_ENREGISTREMENT = 1 + Integer.BYTES;
+	private static final int MAGIQUE = 0x50494A4C;
+	private static final int TAILLE_ENTETE_JOURNAL = Integer.BYTES + Long.BYTES + Integer.BYTES;
+	private static final String IMAGE = "pile.img";
+
+	private final Path repertoire;
+	private final int nbEcrituresParSync;
+	private final long delaiSyncNanos;
+	private final long tailleMaxJournal;
+	private final ByteBuffer tampon = ByteBuffer.allocateDirect(64 * 1024);
+	private PileInt pile;
+	private long generation;
+	private FileChannel journal;
+	private int nbEnAttente;
+	private long dernierSync;
+
+	/**
+	 * Ouvre ou crée une pile journalisée dans le répertoire spécifié, avec un
+	 * forçage sur disque toutes les 64 écritures ou toutes les 10 ms et un
+	 * compactage au-delà de 64 Mo de journal.
+	 *
+	 * @param repertoire    le répertoire contenant l'image et le journal
+	 * @param nbMaxElements la capacité maximale de la pile
+	 *
+	 * @throws IOException en cas d'erreur d'entrée/sortie, si le répertoire
+	 *                     contient une pile de capacité différente ou si son
+	 *                     journal est corrompu
+	 */
+	public PileIntJournalisee(Path repertoire, int nbMaxElements) throws IOException {
+		this(repertoire, nbMaxElements, 64, 10, 64L * 1024 * 1024);
+	}
+
+	/**
+	 * Ouvre ou crée une pile journalisée dans le répertoire spécifié. Si le
+	 * répertoire contient déjà une pile, celle-ci est reconstruite à partir de
+	 * son image et de son journal ; un enregistrement incomplet en fin de
+	 * journal (écriture interrompue) est ignoré et supprimé.
+	 *
+	 * @param repertoire         le répertoire contenant l'image et le journal
+	 * @param nbMaxElements      la capacité maximale de la pile
+	 * @param nbEcrituresParSync nombre maximal d'enregistrements non forcés
+	 * @param delaiSyncMillis    délai maximal entre deux forçages
+	 * @param tailleMaxJournal   taille du journal (en octets) déclenchant un
+	 *                           compactage
+	 *
+	 * @requires repertoire != null;
+	 * @requires nbMaxElements >= 0;
+	 * @requires nbEcrituresParSync > 0;
+	 * @requires delaiSyncMillis >= 0;
+	 * @requires tailleMaxJournal > 0;
+	 *
+	 * @throws IOException en cas d'erreur d'entrée/sortie, si le répertoire
+	 *                     contient une pile de capacité différente ou si son
+	 *                     journal est corrompu
+	 */
+	public PileIntJournalisee(Path repertoire, int nbMaxElements, int nbEcrituresParSync, long delaiSyncMillis,
+			long tailleMaxJournal) throws IOException {
+		this.repertoire = Files.createDirectories(repertoire);
+		this.nbEcrituresParSync = nbEcrituresParSync;
+		this.delaiSyncNanos = delaiSyncMillis * 1_000_000L;
+		this.tailleMaxJournal = tailleMaxJournal;
+		pile = lireImage(nbMaxElements);
+		Path chemin = cheminJournal(generation);
+		if (Files.exists(chemin) && Files.size(chemin) >= TAILLE_ENTETE_JOURNAL) {
+			rejouer(chemin);
+			journal = FileChannel.open(chemin, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		} else {
+			// Journal absent, ou dont la création a été interrompue avant
+			// l'écriture complète de l'en-tête: il ne contient aucun
+			// enregistrement.
+			journal = creerJournal(generation);
+		}
+		dernierSync = System.nanoTime();
+	}
+
+	/**
+	 * Consultation du nombre maximal d'élément pouvant etre
+	 * stockés dans la pile.
+	 *
+	 * @return capacité maximale de la pile
+	 *
+	 * @pure
+	 */
+	public int getNbMaxElements() {
+		return pile.getNbMaxElements();
+	}
+
+	/**
+	 * Consultation du nombre d'éléments présents dans la pile.
+	 *
+	 * @return nombre d'éléments de la pile
+	 *
+	 * @pure
+	 */
+	public int getNbElements() {
+		return pile.getNbElements();
+	}
+
+	/**
+	 * Consultation du sommet de pile
+	 *
+	 * @return le sommet de pile
+	 *
+	 * @requires !estVide();
+	 *
+	 * @pure
+	 */
+	public int getSommet() {
+		return pile.getSommet();
+	}
+
+	/**
+	 * La pile est-elle pleine ?
+	 *
+	 * @return true si la pile est pleine (capacité atteinte), false sinon.
+	 *
+	 * @pure
+	 */
+	public boolean estPleine() {
+		return pile.estPleine();
+	}
+
+	/**
+	 * La pile est-elle vide ?
+	 *
+	 * @return true si la pile est vide, false sinon.
+	 *
+	 * @pure
+	 */
+	public boolean estVide() {
+		return pile.estVide();
+	}
+
+	/**
+	 * Renvoie une copie de la pile en mémoire.
+	 *
+	 * @return une copie de l'état courant de la pile
+	 *
+	 * @ensures \result != null;
+	 *
+	 * @pure
+	 */
+	public PileInt getPile() {
+		return (PileInt) pile.clone();
+	}
+
+	/**
+	 * Ajout au sommet de la pile (i.e. push), après enregistrement dans le
+	 * journal.
+	 *
+	 * @param e L'élement à ajouter
+	 *
+	 * @requires !estPleine();
+	 * @ensures !estVide();
+	 * @ensures getSommet() == e;
+	 * @ensures (getNbElements() == \old(getNbElements()) + 1);
+	 *
+	 * @throws IOException           en cas d'erreur d'écriture du journal
+	 * @throws IllegalStateException si la pile est pleine, rien n'étant alors
+	 *                               enregistré
+	 */
+	public void empiler(int e) throws IOException {
+		// Vérification inconditionnelle: un enregistrement invalide rendrait
+		// le journal impossible à rejouer.
+		if (pile.estPleine()) {
+			throw new IllegalStateException("empiler: la pile est pleine");
+		}
+		if (tampon.remaining() < TAILLE_MAX_ENREGISTREMENT) {
+			vider();
+		}
+		tampon.put(EMPILER).putInt(e);
+		pile.empiler(e);
+		apresEcriture();
+	}
+
+	/**
+	 * Retrait de l'élement au sommet de la pile (i.e. pop), après
+	 * enregistrement dans le journal.
+	 *
+	 * @requires !estVide();
+	 * @ensures !estPleine();
+	 * @ensures (getNbElements() == \old(getNbElements()) - 1);
+	 *
+	 * @throws IOException           en cas d'erreur d'écriture du journal
+	 * @throws IllegalStateException si la pile est vide, rien n'étant alors
+	 *                               enregistré
+	 */
+	public void depiler() throws IOException {
+		if (pile.estVide()) {
+			throw new IllegalStateException("depiler: la pile est vide");
+		}
+		if (!tampon.hasRemaining()) {
+			vider();
+		}
+		tampon.put(DEPILER);
+		pile.depiler();
+		apresEcriture();
+	}
+
+	/**
+	 * Force sur le support toutes les modifications déjà effectuées.
+	 *
+	 * @throws IOException en cas d'erreur d'écriture du journal
+	 */
+	public void synchroniser() throws IOException {
+		vider();
+		journal.force(false);
+		nbEnAttente = 0;
+		dernierSync = System.nanoTime();
+		if (journal.size() > tailleMaxJournal) {
+			compacter();
+		}
+	}
+
+	/**
+	 * Remplace le journal par une image de l'état courant de la pile. L'image
+	 * est écrite dans un fichier temporaire puis renommée de façon atomique,
+	 * de sorte qu'une panne pendant le compactage laisse toujours un état
+	 * cohérent.
+	 *
+	 * @throws IOException en cas d'erreur d'entrée/sortie
+	 */
+	public void compacter() throws IOException {
+		vider();
+		journal.force(false);
+		long suivante = generation + 1;
+		Path temporaire = repertoire.resolve(IMAGE + ".tmp");
+		try (FileChannel image = FileChannel.open(temporaire, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer entete = ByteBuffer.allocate(Long.BYTES + 2 * Integer.BYTES);
+			entete.putLong(suivante).putInt(pile.getNbMaxElements()).putInt(pile.getNbElements()).flip();
+			ecrireTout(image, entete);
+			PileInt copie = (PileInt) pile.clone();
+			int[] elements = new int[copie.getNbElements()];
+			for (int i = elements.length - 1; i >= 0; i--) {
+				elements[i] = copie.getSommet();
+				copie.depiler();
+			}
+			ByteBuffer corps = ByteBuffer.allocate(elements.length * Integer.BYTES);
+			corps.asIntBuffer().put(elements);
+			ecrireTout(image, corps);
+			image.force(true);
+		}
+		Files.move(temporaire, repertoire.resolve(IMAGE), StandardCopyOption.ATOMIC_MOVE,
+				StandardCopyOption.REPLACE_EXISTING);
+		// Le renommage n'est durable qu'une fois le répertoire forcé:
+		forcerRepertoire();
+		journal.close();
+		Files.deleteIfExists(cheminJournal(generation));
+		generation = suivante;
+		journal = creerJournal(generation);
+		forcerRepertoire();
+		nbEnAttente = 0;
+		dernierSync = System.nanoTime();
+	}
+
+	/**
+	 * Rend durables les modifications en attente puis ferme le journal.
+	 *
+	 * @throws IOException en cas d'erreur d'entrée/sortie
+	 */
+	public void close() throws IOException {
+		try {
+			vider();
+			journal.force(false);
+		} finally {
+			journal.close();
+		}
+	}
+
+	/**
+	 * Renvoie une représentation de cette instance sous forme de chaîne de
+	 * caractère.
+	 *
+	 * @return une chaîne de caractères représentant cette instance.
+	 *
+	 * @pure
+	 */
+	public String toString() {
+		return "PileIntJournalisee(" + repertoire + "):" + pile;
+	}
+
+	private void apresEcriture() throws IOException {
+		nbEnAttente++;
+		if (nbEnAttente >= nbEcrituresParSync || System.nanoTime() - dernierSync >= delaiSyncNanos) {
+			synchroniser();
+		}
+	}
+
+	private void vider() throws IOException {
+		tampon.flip();
+		ecrireTout(journal, tampon);
+		tampon.clear();
+	}
+
+	private void forcerRepertoire() throws IOException {
+		try (FileChannel canal = FileChannel.open(repertoire, StandardOpenOption.READ)) {
+			canal.force(true);
+		}
+	}
+
+	private static void ecrireTout(FileChannel canal, ByteBuffer buf) throws IOException {
+		while (buf.hasRemaining()) {
+			canal.write(buf);
+		}
+	}
+
+	private Path cheminJournal(long gen) {
+		return repertoire.resolve("journal-" + gen + ".log");
+	}
+
+	private FileChannel creerJournal(long gen) throws IOException {
+		FileChannel canal = FileChannel.open(cheminJournal(gen), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			ByteBuffer entete = ByteBuffer.allocate(TAILLE_ENTETE_JOURNAL);
+			entete.putInt(MAGIQUE).putLong(gen).putInt(pile.getNbMaxElements()).flip();
+			ecrireTout(canal, entete);
+		} catch (IOException ex) {
+			canal.close();
+			throw ex;
+		}
+		return canal;
+	}
+
+	private PileInt lireImage(int nbMaxElements) throws IOException {
+		Path chemin = repertoire.resolve(IMAGE);
+		if (!Files.exists(chemin)) {
+			generation = 0;
+			return new PileInt(nbMaxElements);
+		}
+		ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(chemin));
+		generation = buf.getLong();
+		int capacite = buf.getInt();
+		int nbElements = buf.getInt();
+		if (capacite != nbMaxElements || nbElements < 0 || nbElements > capacite
+				|| buf.remaining() != nbElements * Integer.BYTES) {
+			throw new IOException("Image incompatible: " + chemin);
+		}
+		int[] elements = new int[capacite];
+		buf.asIntBuffer().get(elements, 0, nbElements);
+		return new PileInt(elements, nbElements);
+	}
+
+	private void rejouer(Path chemin) throws IOException {
+		try (FileChannel canal = FileChannel.open(chemin, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer entete = ByteBuffer.allocate(TAILLE_ENTETE_JOURNAL);
+			while (entete.hasRemaining() && canal.read(entete) > 0) {
+			}
+			entete.flip();
+			if (entete.getInt() != MAGIQUE || entete.getLong() != generation
+					|| entete.getInt() != pile.getNbMaxElements()) {
+				throw new IOException("Journal incompatible: " + chemin);
+			}
+			ByteBuffer buf = ByteBuffer.allocate(64 * 1024);
+			long valide = TAILLE_ENTETE_JOURNAL;
+			while (canal.read(buf) > 0) {
+				buf.flip();
+				while (buf.hasRemaining()) {
+					byte type = buf.get(buf.position());
+					if (type == DEPILER) {
+						if (pile.estVide()) {
+							throw new IOException("Journal corrompu (retrait d'une pile vide): " + chemin);
+						}
+						buf.get();
+						pile.depiler();
+						valide += 1;
+					} else if (type == EMPILER && buf.remaining() >= TAILLE_MAX_ENREGISTREMENT) {
+						if (pile.estPleine()) {
+							throw new IOException("Journal corrompu (ajout à une pile pleine): " + chemin);
+						}
+						buf.get();
+						pile.empiler(buf.getInt());
+						valide += TAILLE_MAX_ENREGISTREMENT;
+					} else {
+						break;
+					}
+				}
+				buf.compact();
+			}
+			// Enregistrement incomplet en fin de journal:
+			canal.truncate(valide);
+		}
+	}
+}
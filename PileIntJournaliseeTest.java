@@ -0,0 +1,198 @@
+/**
+ *
+ */
+package pilesimple.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import test.BaseDataProviders;
+import test.RapportGraine;
+
+import pilesimple.PileInt;
+import pilesimple.PileIntJournalisee;
+
+/**
+ * Tests unitaires pour la classe PileIntJournalisee.
+ *
+ * @author Marc Champesme
+ * @version 1.8.0
+ *
+ */
+@ExtendWith(RapportGraine.class)
+class PileIntJournaliseeTest {
+	//////////////////////////////////////////////////
+	// Méthodes produisant les données de test:
+	//////////////////////////////////////////////////
+	public static Stream<Arguments> capaciteEtNbOperationsProvider() {
+		return BaseDataProviders.intProvider(1, 30)
+				.mapToObj(n -> Arguments.of(n, BaseDataProviders.randInt(200)));
+	}
+	//////////////////////////////////////////////////
+	// Fin des méthodes produisant les données de test
+	//////////////////////////////////////////////////
+
+	@TempDir
+	Path repertoire;
+
+	/**
+	 * Effectue nbOperations ajouts ou retraits aléatoires sur la pile journalisée
+	 * et sur une PileInt de référence.
+	 */
+	private static void modifierAleatoirement(PileIntJournalisee self, PileInt modele, int nbOperations)
+			throws IOException {
+		for (int i = 0; i < nbOperations; i++) {
+			if (!self.estVide() && (self.estPleine() || BaseDataProviders.randBool())) {
+				self.depiler();
+				modele.depiler();
+			} else if (!self.estPleine()) {
+				int e = BaseDataProviders.randInt(1000);
+				self.empiler(e);
+				modele.empiler(e);
+			}
+		}
+	}
+
+	/**
+	 * La pile reconstruite à partir du journal est égale à la pile avant
+	 * fermeture.
+	 */
+	@ParameterizedTest
+	@MethodSource("capaciteEtNbOperationsProvider")
+	public final void testRejeu(int nbMaxElements, int nbOperations) throws IOException {
+		PileInt modele = new PileInt(nbMaxElements);
+		try (PileIntJournalisee self = new PileIntJournalisee(repertoire, nbMaxElements, 7, 1000, 1L << 20)) {
+			modifierAleatoirement(self, modele, nbOperations);
+			assertEquals(modele, self.getPile());
+		}
+		try (PileIntJournalisee self = new PileIntJournalisee(repertoire, nbMaxElements)) {
+			assertEquals(modele, self.getPile());
+			modifierAleatoirement(self, modele, nbOperations);
+		}
+		try (PileIntJournalisee self = new PileIntJournalisee(repertoire, nbMaxElements)) {
+			assertEquals(modele, self.getPile());
+		}
+	}
+
+	/**
+	 * Le compactage (explicite ou déclenché par la taille du journal) conserve
+	 * l'état de la pile.
+	 */
+	@ParameterizedTest
+	@MethodSource("capaciteEtNbOperationsProvider")
+	public final void testCompacter(int nbMaxElements, int nbOperations) throws IOException {
+		PileInt modele = new PileInt(nbMaxElements);
+		try (PileIntJournalisee self = new PileIntJournalisee(repertoire, nbMaxElements, 1, 0, 16)) {
+			modifierAleatoirement(self, modele, nbOperations);
+			self.compacter();
+			modifierAleatoirement(self, modele, nbOperations);
+		}
+		try (PileIntJournalisee self = new PileIntJournalisee(repertoire, nbMaxElements)) {
+			assertEquals(modele, self.getPile());
+		}
+	}
+
+	/**
+	 * Un enregistrement incomplet en fin de journal est ignoré.
+	 */
+	@Test
+	public final void testEnregistrementIncomplet() throws IOException {
+		try (PileIntJournalisee self = new PileIntJournalisee(repertoire, 10)) {
+			self.empiler(1);
+			self.empiler(2);
+		}
+		try (FileChannel canal = FileChannel.open(repertoire.resolve("journal-0.log"), StandardOpenOption.WRITE)) {
+			canal.truncate(canal.size() - 2);
+		}
+		try (PileIntJournalisee self = new PileIntJournalisee(repertoire, 10)) {
+			assertEquals(1, self.getNbElements());
+			assertEquals(1, self.getSommet());
+			self.empiler(3);
+		}
+		try (PileIntJournalisee self = new PileIntJournalisee(repertoire, 10)) {
+			assertEquals(2, self.getNbElements());
+			assertEquals(3, self.getSommet());
+		}
+	}
+
+	/**
+	 * Une opération refusée (pile pleine ou vide) n'est pas enregistrée : le
+	 * journal reste rejouable.
+	 */
+	@Test
+	public final void testOperationRefusee() throws IOException {
+		try (PileIntJournalisee self = new PileIntJournalisee(repertoire, 1)) {
+			assertThrows(IllegalStateException.class, () -> self.depiler());
+			self.empiler(1);
+			assertThrows(IllegalStateException.class, () -> self.empiler(2));
+			assertEquals(1, self.getNbElements());
+		}
+		try (PileIntJournalisee self = new PileIntJournalisee(repertoire, 1)) {
+			assertEquals(1, self.getNbElements());
+			assertEquals(1, self.getSommet());
+		}
+	}
+
+	/**
+	 * Une image de capacité différente est refusée.
+	 */
+	@Test
+	public final void testCapaciteIncompatible() throws IOException {
+		try (PileIntJournalisee self = new PileIntJournalisee(repertoire, 10)) {
+			self.empiler(1);
+			self.compacter();
+		}
+		assertThrows(IOException.class, () -> new PileIntJournalisee(repertoire, 11));
+	}
+
+	/**
+	 * Avant tout compactage, un journal de capacité différente est refusé.
+	 */
+	@Test
+	public final void testCapaciteIncompatibleSansImage() throws IOException {
+		try (PileIntJournalisee self = new PileIntJournalisee(repertoire, 10)) {
+			for (int i = 0; i < 5; i++) {
+				self.empiler(i);
+			}
+		}
+		assertThrows(IOException.class, () -> new PileIntJournalisee(repertoire, 100));
+		assertThrows(IOException.class, () -> new PileIntJournalisee(repertoire, 3));
+		try (PileIntJournalisee self = new PileIntJournalisee(repertoire, 10)) {
+			assertEquals(5, self.getNbElements());
+			assertEquals(4, self.getSommet());
+		}
+	}
+
+	/**
+	 * Un enregistrement contraire au contrat de la pile (ici un retrait de la
+	 * pile vide) est signalé comme une corruption du journal.
+	 */
+	@Test
+	public final void testJournalCorrompu() throws IOException {
+		try (PileIntJournalisee self = new PileIntJournalisee(repertoire, 10)) {
+			self.empiler(1);
+			self.depiler();
+		}
+		try (FileChannel canal = FileChannel.open(repertoire.resolve("journal-0.log"), StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND)) {
+			// Enregistrement de retrait:
+			canal.write(ByteBuffer.wrap(new byte[] { 2 }));
+		}
+		assertThrows(IOException.class, () -> new PileIntJournalisee(repertoire, 10));
+	}
+}
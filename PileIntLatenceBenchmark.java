@@ -0,0 +1,353 @@
+package pilesimple.bench;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import pilesimple.EnregistreurTrace;
+import pilesimple.FileIntSpsc;
+import pilesimple.PileInt;
+import pilesimple.PileIntJournalisee;
+import pilesimple.PileIntTracee;
+
+/**
+ * Générateur de charge à débit imposé pour <code>PileInt</code> et ses
+ * variantes. Chaque
+ * thread exécute des opérations à intervalle fixe (débit offert) et enregistre
+ * pour chaque type d'opération :
+ * <ul>
+ * <li>la latence mesurée depuis l'instant prévu de démarrage de l'opération,
+ * qui inclut l'attente due aux opérations précédentes trop lentes (pas
+ * d'omission coordonnée) ;</li>
+ * <li>le temps de service, mesuré depuis le démarrage effectif, enregistré
+ * avec correction de l'omission coordonnée.</li>
+ * </ul>
+ *
+ * Les opérations coûteuses (<code>clone</code>, <code>toString</code>,
+ * <code>hashCode</code>) sont mélangées aux ajouts et retraits dans les
+ * proportions de {@link #PROPORTIONS}, afin de rendre visibles leurs effets sur
+ * la queue de distribution des opérations courantes.
+ *
+ * La variante mesurée est une <code>PileInt</code> (<code>pile</code>), une
+ * <code>PileIntTracee</code> enregistrant dans un fichier
+ * (<code>tracee</code>), une <code>PileIntJournalisee</code> avec ses
+ * paramètres de forçage par défaut (<code>journalisee</code>) ou une
+ * <code>FileIntSpsc</code> (<code>spsc</code>). Cette dernière n'admet qu'un
+ * producteur et un consommateur : deux threads non synchronisés sont alors
+ * lancés, l'un n'effectuant que des ajouts, l'autre des retraits et des
+ * consultations.
+ *
+ * Usage : <code>java pilesimple.bench.PileIntLatenceBenchmark [opsParSeconde
+ * [durée(s) [nbThreads [taille [partagee|privee
+ * [pile|tracee|journalisee|spsc]]]]]]</code>
+ *
+ * @author Marc Champesme
+ * @version 1.8.0
+ */
+public class PileIntLatenceBenchmark {
+	private static final String[] OPERATIONS = { "empiler", "depiler", "getSommet", "hashCode", "clone",
+			"toString" };
+	/**
+	 * Proportion de chaque opération de OPERATIONS, pour 10000 opérations.
+	 */
+	private static final int[] PROPORTIONS = { 4500, 4500, 900, 60, 30, 10 };
+	private static final int[] PROPORTIONS_PRODUCTEUR = { 10000, 0, 0, 0, 0, 0 };
+	private static final int[] PROPORTIONS_CONSOMMATEUR = { 0, 9000, 1000, 0, 0, 0 };
+
+	// Empêche l'élimination des résultats par le JIT:
+	private static volatile long puits;
+
+	/**
+	 * Les histogrammes d'un thread, par type d'opération.
+	 */
+	private static class Mesures {
+		final HistogrammeLatence[] reponse = new HistogrammeLatence[OPERATIONS.length];
+		final HistogrammeLatence[] service = new HistogrammeLatence[OPERATIONS.length];
+
+		Mesures() {
+			for (int i = 0; i < OPERATIONS.length; i++) {
+				reponse[i] = new HistogrammeLatence();
+				service[i] = new HistogrammeLatence();
+			}
+		}
+
+		void ajouter(Mesures m) {
+			for (int i = 0; i < OPERATIONS.length; i++) {
+				reponse[i].ajouter(m.reponse[i]);
+				service[i].ajouter(m.service[i]);
+			}
+		}
+	}
+
+	/**
+	 * Une variante mesurée, qui exécute l'opération d'indice spécifié dans
+	 * OPERATIONS.
+	 */
+	private interface Cible extends Closeable {
+		long executer(int operation, int e);
+	}
+
+	private static int tirerOperation(SplittableRandom rand, int[] proportions) {
+		int tirage = rand.nextInt(10000);
+		for (int i = 0; i < proportions.length; i++) {
+			tirage -= proportions[i];
+			if (tirage < 0) {
+				return i;
+			}
+		}
+		return 0;
+	}
+
+	private static long executer(int operation, PileInt p, int e) {
+		switch (operation) {
+		case 0:
+			if (p.estPleine()) {
+				p.depiler();
+			}
+			p.empiler(e);
+			return 0;
+		case 1:
+			if (p.estVide()) {
+				p.empiler(e);
+			}
+			p.depiler();
+			return 0;
+		case 2:
+			return (p.estVide() ? 0 : p.getSommet());
+		case 3:
+			return p.hashCode();
+		case 4:
+			return ((PileInt) p.clone()).getNbElements();
+		default:
+			return p.toString().length();
+		}
+	}
+
+	private static long executer(int operation, PileIntJournalisee p, int e) throws IOException {
+		switch (operation) {
+		case 0:
+			if (p.estPleine()) {
+				p.depiler();
+			}
+			p.empiler(e);
+			return 0;
+		case 1:
+			if (p.estVide()) {
+				p.empiler(e);
+			}
+			p.depiler();
+			return 0;
+		case 2:
+			return (p.estVide() ? 0 : p.getSommet());
+		case 3:
+			return p.getPile().hashCode();
+		case 4:
+			return p.getPile().getNbElements();
+		default:
+			return p.toString().length();
+		}
+	}
+
+	private static long executer(int operation, Cible c, int e, boolean partagee) {
+		if (!partagee) {
+			return c.executer(operation, e);
+		}
+		synchronized (c) {
+			return c.executer(operation, e);
+		}
+	}
+
+	private static Cible creer(String variante, int taille, Path fichier) throws IOException {
+		Cible c;
+		switch (variante) {
+		case "pile": {
+			PileInt p = new PileInt(taille);
+			c = new Cible() {
+				public long executer(int operation, int e) {
+					return PileIntLatenceBenchmark.executer(operation, p, e);
+				}
+
+				public void close() {
+				}
+			};
+			break;
+		}
+		case "tracee": {
+			EnregistreurTrace enr = new EnregistreurTrace(Files.newOutputStream(fichier), taille);
+			PileIntTracee p = new PileIntTracee(taille, enr);
+			c = new Cible() {
+				public long executer(int operation, int e) {
+					return PileIntLatenceBenchmark.executer(operation, p, e);
+				}
+
+				public void close() throws IOException {
+					enr.close();
+				}
+			};
+			break;
+		}
+		case "journalisee": {
+			PileIntJournalisee p = new PileIntJournalisee(fichier, taille);
+			c = new Cible() {
+				public long executer(int operation, int e) {
+					try {
+						return PileIntLatenceBenchmark.executer(operation, p, e);
+					} catch (IOException ex) {
+						throw new UncheckedIOException(ex);
+					}
+				}
+
+				public void close() throws IOException {
+					p.close();
+				}
+			};
+			break;
+		}
+		default:
+			throw new IllegalArgumentException("Variante inconnue: " + variante);
+		}
+		// Remplissage à moitié, par des ajouts:
+		for (int i = 0; i < taille / 2; i++) {
+			c.executer(0, i);
+		}
+		return c;
+	}
+
+	/**
+	 * Les deux extrémités d'une FileIntSpsc à moitié pleine : un ajout sur file
+	 * pleine ou un retrait sur file vide est sans effet.
+	 */
+	private static Cible[] creerSpsc(int taille) {
+		FileIntSpsc f = new FileIntSpsc(taille);
+		for (int i = 0; i < taille / 2; i++) {
+			f.enfiler(i);
+		}
+		Cible producteur = new Cible() {
+			public long executer(int operation, int e) {
+				if (!f.estPleine()) {
+					f.enfiler(e);
+				}
+				return 0;
+			}
+
+			public void close() {
+			}
+		};
+		Cible consommateur = new Cible() {
+			public long executer(int operation, int e) {
+				if (f.estVide()) {
+					return 0;
+				}
+				int tete = f.getTete();
+				if (operation == 1) {
+					f.defiler();
+				}
+				return tete;
+			}
+
+			public void close() {
+			}
+		};
+		return new Cible[] { producteur, consommateur };
+	}
+
+	/**
+	 * Boucle d'un thread : une opération toutes les intervalle nanosecondes
+	 * jusqu'à l'instant fin.
+	 */
+	private static Mesures charger(Cible c, int[] proportions, boolean partagee, long intervalle, long debut,
+			long fin, long graine) {
+		Mesures m = new Mesures();
+		SplittableRandom rand = new SplittableRandom(graine);
+		long controle = 0;
+		long prevu = debut;
+		while (prevu < fin) {
+			long attente = prevu - System.nanoTime();
+			if (attente > 50_000) {
+				LockSupport.parkNanos(attente - 50_000);
+			}
+			while (System.nanoTime() < prevu) {
+				Thread.onSpinWait();
+			}
+			int operation = tirerOperation(rand, proportions);
+			long demarrage = System.nanoTime();
+			controle += executer(operation, c, rand.nextInt(), partagee);
+			long termine = System.nanoTime();
+			m.reponse[operation].enregistrer(termine - prevu);
+			m.service[operation].enregistrer(termine - demarrage, intervalle);
+			prevu += intervalle;
+		}
+		puits = controle;
+		return m;
+	}
+
+	public static void main(String[] args) throws InterruptedException, IOException {
+		long opsParSeconde = (args.length > 0 ? Long.parseLong(args[0]) : 20_000);
+		int duree = (args.length > 1 ? Integer.parseInt(args[1]) : 10);
+		int nbThreads = (args.length > 2 ? Integer.parseInt(args[2]) : 4);
+		int taille = (args.length > 3 ? Integer.parseInt(args[3]) : 10_000);
+		boolean partagee = (args.length > 4 ? args[4].equals("partagee") : true);
+		String variante = (args.length > 5 ? args[5] : "pile");
+
+		long intervalle = 1_000_000_000L / opsParSeconde;
+		Path repertoire = Files.createTempDirectory("pile-latence");
+		Cible[] cibles;
+		int[][] proportions;
+		if (variante.equals("spsc")) {
+			nbThreads = 2;
+			partagee = false;
+			cibles = creerSpsc(taille);
+			proportions = new int[][] { PROPORTIONS_PRODUCTEUR, PROPORTIONS_CONSOMMATEUR };
+		} else {
+			cibles = new Cible[nbThreads];
+			proportions = new int[nbThreads][];
+			Cible partage = (partagee ? creer(variante, taille, repertoire.resolve("partagee")) : null);
+			for (int t = 0; t < nbThreads; t++) {
+				cibles[t] = (partagee ? partage : creer(variante, taille, repertoire.resolve("pile" + t)));
+				proportions[t] = PROPORTIONS;
+			}
+		}
+		boolean verrou = partagee;
+
+		Mesures[] parThread = new Mesures[nbThreads];
+		Thread[] threads = new Thread[nbThreads];
+		long debut = System.nanoTime() + 100_000_000L;
+		long fin = debut + duree * 1_000_000_000L;
+		for (int t = 0; t < nbThreads; t++) {
+			int numero = t;
+			threads[t] = new Thread(() -> parThread[numero] = charger(cibles[numero], proportions[numero], verrou,
+					intervalle, debut, fin, numero));
+			threads[t].start();
+		}
+		Mesures total = new Mesures();
+		for (int t = 0; t < nbThreads; t++) {
+			threads[t].join();
+			total.ajouter(parThread[t]);
+		}
+
+		for (int t = 0; t < nbThreads; t++) {
+			if (t == 0 || cibles[t] != cibles[0]) {
+				cibles[t].close();
+			}
+		}
+		try (Stream<Path> fichiers = Files.walk(repertoire)) {
+			fichiers.sorted(Comparator.reverseOrder()).forEach(f -> f.toFile().delete());
+		}
+
+		System.out.printf("%s, %d threads x %d ops/s, %s de %d éléments, %d s (latences en ns)%n", variante,
+				nbThreads, opsParSeconde, (partagee ? "partagée" : "privée"), taille, duree);
+		for (int i = 0; i < OPERATIONS.length; i++) {
+			if (total.reponse[i].getNbValeurs() == 0) {
+				continue;
+			}
+			System.out.printf("%-10s réponse: %s%n", OPERATIONS[i], total.reponse[i]);
+			System.out.printf("%-10s service: %s%n", "", total.service[i]);
+		}
+	}
+}
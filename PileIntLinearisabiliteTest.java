@@ -0,0 +1,223 @@
+/**
+ *
+ */
+package pilesimple.test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import test.BaseDataProviders;
+import test.RapportGraine;
+
+import pilesimple.FileIntSpsc;
+import pilesimple.PileInt;
+import pilesimple.test.VerificateurLinearisabilite.Operation;
+import pilesimple.test.VerificateurLinearisabilite.PileConcurrente;
+
+/**
+ * Tests de linéarisabilité des variantes concurrentes de PileInt et de
+ * FileIntSpsc : des histoires concurrentes aléatoires sont exécutées puis
+ * comparées au modèle séquentiel d'une pile ou d'une file. Une PileInt non
+ * synchronisée sert de témoin négatif : le test doit y détecter une histoire
+ * non linéarisable.
+ *
+ * Le nombre de threads (par défaut le nombre de processeurs, au plus 8) et le
+ * nombre d'histoires par variante peuvent être fixés par
+ * <code>-Dtest.linearisabilite.threads=...</code> et
+ * <code>-Dtest.linearisabilite.histoires=...</code>.
+ *
+ * @author Marc Champesme
+ * @version 1.8.0
+ *
+ */
+@ExtendWith(RapportGraine.class)
+class PileIntLinearisabiliteTest {
+	private static final int NB_THREADS = Integer.getInteger("test.linearisabilite.threads",
+			Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors())));
+	private static final int NB_HISTOIRES = Integer.getInteger("test.linearisabilite.histoires", 200);
+	private static final int CAPACITE = 4;
+	private static final long PAUSE_NANOS = 50_000;
+
+	//////////////////////////////////////////////////
+	// Variantes concurrentes testées:
+	//////////////////////////////////////////////////
+	private static PileConcurrente pileSynchronisee(int nbMaxElements) {
+		PileInt p = new PileInt(nbMaxElements);
+		return new PileConcurrente() {
+			public synchronized boolean empiler(int e) {
+				if (p.estPleine()) {
+					return false;
+				}
+				p.empiler(e);
+				return true;
+			}
+
+			public synchronized long depiler() {
+				if (p.estVide()) {
+					return VerificateurLinearisabilite.VIDE;
+				}
+				int e = p.getSommet();
+				p.depiler();
+				return e;
+			}
+		};
+	}
+
+	/**
+	 * Une file à un producteur et un consommateur : seul le producteur appelle
+	 * empiler, seul le consommateur appelle depiler.
+	 */
+	private static PileConcurrente fileSpsc(int nbMaxElements) {
+		FileIntSpsc f = new FileIntSpsc(nbMaxElements);
+		return new PileConcurrente() {
+			public boolean empiler(int e) {
+				if (f.estPleine()) {
+					return false;
+				}
+				f.enfiler(e);
+				return true;
+			}
+
+			public long depiler() {
+				if (f.estVide()) {
+					return VerificateurLinearisabilite.VIDE;
+				}
+				int e = f.getTete();
+				f.defiler();
+				return e;
+			}
+		};
+	}
+
+	/**
+	 * Une PileInt partagée sans synchronisation, dont la fenêtre entre le test
+	 * et la modification est élargie par une courte suspension du thread, y
+	 * compris sur un seul processeur. Avec un
+	 * seul producteur et un seul consommateur, le nombre d'éléments reste
+	 * entre 0 et la capacité : les pertes de mises à jour ne provoquent pas
+	 * d'exception mais des histoires non linéarisables.
+	 */
+	private static PileConcurrente pileNonSynchronisee(int nbMaxElements) {
+		PileInt p = new PileInt(nbMaxElements);
+		return new PileConcurrente() {
+			public boolean empiler(int e) {
+				if (p.estPleine()) {
+					return false;
+				}
+				LockSupport.parkNanos(PAUSE_NANOS);
+				p.empiler(e);
+				return true;
+			}
+
+			public long depiler() {
+				if (p.estVide()) {
+					return VerificateurLinearisabilite.VIDE;
+				}
+				int e = p.getSommet();
+				LockSupport.parkNanos(PAUSE_NANOS);
+				p.depiler();
+				return e;
+			}
+		};
+	}
+
+	public static Stream<Arguments> varianteProvider() {
+		return Stream.of(Arguments.of("PileInt synchronized",
+				(IntFunction<PileConcurrente>) PileIntLinearisabiliteTest::pileSynchronisee));
+	}
+
+	/**
+	 * Toutes les histoires concurrentes aléatoires de la variante spécifiée sont
+	 * linéarisables.
+	 */
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("varianteProvider")
+	public final void testLinearisable(String nom, IntFunction<PileConcurrente> fabrique)
+			throws InterruptedException {
+		int nbOperations = Math.max(1, 24 / NB_THREADS);
+		long graine = BaseDataProviders.getGraine();
+		for (int i = 0; i < NB_HISTOIRES; i++) {
+			List<Operation> histoire = VerificateurLinearisabilite.executer(fabrique.apply(CAPACITE), NB_THREADS,
+					nbOperations, graine + i);
+			assertTrue(VerificateurLinearisabilite.estLinearisable(histoire, CAPACITE),
+					() -> nom + ", graine " + graine + ": " + histoire);
+		}
+	}
+
+	/**
+	 * Toutes les histoires aléatoires à un producteur et un consommateur de
+	 * FileIntSpsc sont linéarisables pour une file.
+	 */
+	@Test
+	public final void testFileSpscLinearisable() throws InterruptedException {
+		long graine = BaseDataProviders.getGraine();
+		for (int i = 0; i < NB_HISTOIRES; i++) {
+			List<Operation> histoire = VerificateurLinearisabilite.executerProducteurConsommateur(fileSpsc(CAPACITE),
+					12, graine + i);
+			assertTrue(VerificateurLinearisabilite.estLinearisableFile(histoire, CAPACITE),
+					() -> "FileIntSpsc, graine " + graine + ": " + histoire);
+		}
+	}
+
+	/**
+	 * Témoin négatif : parmi les histoires d'une PileInt non synchronisée, au
+	 * moins une est détectée comme non linéarisable.
+	 */
+	@Test
+	public final void testPileNonSynchroniseeDetectee() throws InterruptedException {
+		long graine = BaseDataProviders.getGraine();
+		boolean detectee = false;
+		for (int i = 0; i < NB_HISTOIRES && !detectee; i++) {
+			List<Operation> histoire = VerificateurLinearisabilite
+					.executerProducteurConsommateur(pileNonSynchronisee(CAPACITE), 12, graine + i);
+			detectee = !VerificateurLinearisabilite.estLinearisable(histoire, CAPACITE);
+		}
+		assertTrue(detectee, () -> "Aucune histoire non linéarisable détectée, graine " + graine);
+	}
+
+	/**
+	 * Le vérificateur accepte les histoires linéarisables et rejette les pertes,
+	 * duplications et éléments inventés.
+	 */
+	@Test
+	public final void testVerificateur() {
+		long vide = VerificateurLinearisabilite.VIDE;
+		// empiler(1) et empiler(2) simultanés, puis deux retraits: les deux
+		// ordres sont possibles.
+		assertTrue(VerificateurLinearisabilite.estLinearisable(Arrays.asList(new Operation(true, 1, 1, 0, 10),
+				new Operation(true, 2, 1, 1, 9), new Operation(false, 0, 1, 20, 21),
+				new Operation(false, 0, 2, 22, 23)), CAPACITE));
+		// Duplication
+		assertFalse(VerificateurLinearisabilite.estLinearisable(Arrays.asList(new Operation(true, 1, 1, 0, 1),
+				new Operation(false, 0, 1, 2, 3), new Operation(false, 0, 1, 4, 5)), CAPACITE));
+		// Perte
+		assertFalse(VerificateurLinearisabilite.estLinearisable(Arrays.asList(new Operation(true, 1, 1, 0, 1),
+				new Operation(false, 0, vide, 2, 3)), CAPACITE));
+		// Élément inventé
+		assertFalse(VerificateurLinearisabilite.estLinearisable(Arrays.asList(new Operation(true, 1, 1, 0, 1),
+				new Operation(false, 0, 2, 2, 3)), CAPACITE));
+		// Ordre LIFO non respecté par des opérations séquentielles
+		assertFalse(VerificateurLinearisabilite.estLinearisable(Arrays.asList(new Operation(true, 1, 1, 0, 1),
+				new Operation(true, 2, 1, 2, 3), new Operation(false, 0, 1, 4, 5)), CAPACITE));
+		// Ajout refusé alors que la pile n'est pas pleine
+		assertFalse(VerificateurLinearisabilite.estLinearisable(Arrays.asList(new Operation(true, 1, 0, 0, 1)),
+				CAPACITE));
+		// Ordre FIFO pour une file, refusé pour une pile
+		List<Operation> fifo = Arrays.asList(new Operation(true, 1, 1, 0, 1), new Operation(true, 2, 1, 2, 3),
+				new Operation(false, 0, 1, 4, 5), new Operation(false, 0, 2, 6, 7));
+		assertTrue(VerificateurLinearisabilite.estLinearisableFile(fifo, CAPACITE));
+		assertFalse(VerificateurLinearisabilite.estLinearisable(fifo, CAPACITE));
+	}
+}
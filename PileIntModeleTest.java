@@ -0,0 +1,130 @@
+/**
+ *
+ */
+package pilesimple.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.PrimitiveIterator;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import test.BaseDataProviders;
+import test.GenerateurTraces;
+import test.RapportGraine;
+
+import pilesimple.PileInt;
+
+/**
+ * Test de PileInt par comparaison avec un modèle de référence
+ * (<code>java.util.ArrayDeque</code>) sur des traces aléatoires
+ * reproductibles : après chaque opération, la pile et le modèle doivent avoir
+ * le même nombre d'éléments et le même sommet. Après 1, 2, 4, 8... opérations,
+ * le contenu complet est comparé et les propriétés de clone, equals et
+ * hashCode sont vérifiées, pour un coût total linéaire en la longueur de la
+ * trace.
+ *
+ * Les traces sont indépendantes et exécutées en parallèle. Leur nombre et leur
+ * taille maximale peuvent être fixés par
+ * <code>-Dtest.modele.traces=...</code> et
+ * <code>-Dtest.modele.taille=...</code> ; la graine est celle de
+ * BaseDataProviders (<code>-Dtest.graine=...</code>).
+ *
+ * @author Marc Champesme
+ * @version 1.8.0
+ *
+ */
+@ExtendWith(RapportGraine.class)
+class PileIntModeleTest {
+	private static final int NB_TRACES = Integer.getInteger("test.modele.traces", 64);
+	private static final int TAILLE_MAX = Integer.getInteger("test.modele.taille", 50_000);
+	private static final GenerateurTraces GENERATEUR = new GenerateurTraces(BaseDataProviders.getGraine(), 1,
+			TAILLE_MAX);
+
+	public static IntStream indiceProvider() {
+		return IntStream.range(0, NB_TRACES);
+	}
+
+	/**
+	 * Teste l'invariant de classe pour l'instance spécifiée.
+	 *
+	 * @param self l'instance à tester
+	 */
+	public void assertInvariant(PileInt self) {
+		assertTrue(self.getNbElements() >= 0);
+		assertTrue(self.getNbElements() <= self.getNbMaxElements());
+	}
+
+	private static void assertContenu(ArrayDeque<Integer> modele, PileInt self) {
+		PileInt copie = (PileInt) self.clone();
+		Iterator<Integer> it = modele.iterator();
+		while (it.hasNext()) {
+			assertEquals(it.next().intValue(), copie.getSommet());
+			copie.depiler();
+		}
+		assertTrue(copie.estVide());
+	}
+
+	@ParameterizedTest
+	@MethodSource("indiceProvider")
+	public final void testConformeAuModele(int indice) {
+		String contexte = "graine " + BaseDataProviders.getGraine() + ", trace " + indice;
+		int taille = GENERATEUR.taille(indice);
+		PileInt self = new PileInt(taille);
+		ArrayDeque<Integer> modele = new ArrayDeque<Integer>();
+		PrimitiveIterator.OfLong trace = GENERATEUR.trace(indice).iterator();
+		long n = 0;
+		long prochaineVerification = 1;
+		while (trace.hasNext()) {
+			long op = trace.nextLong();
+			switch (GenerateurTraces.code(op)) {
+			case GenerateurTraces.EMPILER:
+				assertFalse(self.estPleine(), contexte);
+				self.empiler(GenerateurTraces.valeur(op));
+				modele.push(GenerateurTraces.valeur(op));
+				break;
+			case GenerateurTraces.DEPILER:
+				assertFalse(self.estVide(), contexte);
+				self.depiler();
+				modele.pop();
+				break;
+			default:
+				assertEquals(modele.peek().intValue(), self.getSommet(), contexte);
+			}
+			assertEquals(modele.size(), self.getNbElements(), contexte);
+			assertEquals(modele.isEmpty(), self.estVide(), contexte);
+			assertEquals(modele.size() == taille, self.estPleine(), contexte);
+			if (!modele.isEmpty()) {
+				assertEquals(modele.peek().intValue(), self.getSommet(), contexte);
+			}
+			n++;
+			// Vérifications coûteuses à intervalles croissants: coût total
+			// linéaire en la longueur de la trace.
+			if (n == prochaineVerification) {
+				prochaineVerification = 2 * n;
+				assertContenu(modele, self);
+				PileInt clone = (PileInt) self.clone();
+				assertEquals(self, clone, contexte);
+				assertEquals(self.hashCode(), clone.hashCode(), contexte);
+				if (self.getNbElements() <= 1000) {
+					// toString est quadratique en le nombre d'éléments
+					assertEquals(self.toString(), clone.toString(), contexte);
+				}
+				if (!clone.estPleine()) {
+					clone.empiler(0);
+					assertNotEquals(self, clone, contexte);
+				}
+				assertInvariant(self);
+			}
+		}
+		assertTrue(self.estVide(), contexte);
+	}
+}
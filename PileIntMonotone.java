@@ -0,0 +1,322 @@
+package pilesimple;
+
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Une pile d'entiers de taille bornée dont les éléments restent ordonnés de la
+ * base vers le sommet (pile monotone) : croissants (au sens large) pour une
+ * pile croissante, décroissants pour une pile décroissante.
+ *
+ * L'ajout d'un élément par {@link #empilerMonotone(int, IntConsumer)} retire
+ * d'abord en bloc les éléments du sommet qu'il domine, i.e. strictement
+ * supérieurs à lui pour une pile croissante, strictement inférieurs pour une
+ * pile décroissante. Chaque élément étant ajouté et retiré au plus une fois,
+ * le traitement d'une suite de n éléments est en O(n).
+ *
+ * Les méthodes statiques {@link #indicesSuperieurSuivant(IntStream)} et
+ * {@link #indicesInferieurSuivant(IntStream)} traitent un flot d'entiers en
+ * une seule passe, sans conversion en objets.
+ *
+ * @author Marc Champesme
+ * @version 1.8.0
+ * @invariant (0 <= getNbElements()) && (getNbElements() <= getNbMaxElements());
+ * @invariant estCroissante() ==> (\forall int i; i > 0 && i < getNbElements();
+ *            getElement(i - 1) >= getElement(i));
+ * @invariant !estCroissante() ==> (\forall int i; i > 0 && i < getNbElements();
+ *            getElement(i - 1) <= getElement(i));
+ */
+public class PileIntMonotone {
+	private final PileInt pile;
+	private final boolean croissante;
+
+	/**
+	 * Initialise une pile monotone vide avec la capacité maximale spécifiée.
+	 *
+	 * @param nbMaxElements la capacité maximale de la pile
+	 * @param croissante    true pour une pile croissante de la base vers le
+	 *                      sommet, false pour une pile décroissante
+	 *
+	 * @requires nbMaxElements >= 0;
+	 * @requires nbMaxElements < Integer.MAX_VALUE;
+	 * @ensures estVide();
+	 * @ensures (getNbMaxElements() == nbMaxElements);
+	 * @ensures (estCroissante() == croissante);
+	 *
+	 */
+	public PileIntMonotone(int nbMaxElements, boolean croissante) {
+		this.pile = new PileInt(nbMaxElements);
+		this.croissante = croissante;
+	}
+
+	/**
+	 * La pile est-elle croissante de la base vers le sommet ?
+	 *
+	 * @return true si la pile est croissante, false si elle est décroissante
+	 *
+	 * @pure
+	 */
+	public boolean estCroissante() {
+		return croissante;
+	}
+
+	/**
+	 * Consultation du nombre maximal d'élément pouvant etre
+	 * stockés dans la pile.
+	 *
+	 * @return capacité maximale de la pile
+	 *
+	 * @pure
+	 */
+	public int getNbMaxElements() {
+		return pile.getNbMaxElements();
+	}
+
+	/**
+	 * Consultation du nombre d'éléments présents dans la pile.
+	 *
+	 * @return nombre d'éléments de la pile
+	 *
+	 * @pure
+	 */
+	public int getNbElements() {
+		return pile.getNbElements();
+	}
+
+	/**
+	 * Consultation du sommet de pile
+	 *
+	 * @return le sommet de pile
+	 *
+	 * @requires !estVide();
+	 *
+	 * @pure
+	 */
+	public int getSommet() {
+		return pile.getSommet();
+	}
+
+	/**
+	 * Consultation de l'élément situé à la profondeur spécifiée.
+	 *
+	 * @param profondeur la distance au sommet (0 pour le sommet)
+	 * @return l'élément situé à la profondeur spécifiée
+	 *
+	 * @requires profondeur >= 0;
+	 * @requires profondeur < getNbElements();
+	 *
+	 * @pure
+	 */
+	public int getElement(int profondeur) {
+		return pile.getElement(profondeur);
+	}
+
+	/**
+	 * La pile est-elle pleine ?
+	 *
+	 * @return true si la pile est pleine (capacité atteinte), false sinon.
+	 *
+	 * @pure
+	 */
+	public boolean estPleine() {
+		return pile.estPleine();
+	}
+
+	/**
+	 * La pile est-elle vide ?
+	 *
+	 * @return true si la pile est vide, false sinon.
+	 *
+	 * @pure
+	 */
+	public boolean estVide() {
+		return pile.estVide();
+	}
+
+	/**
+	 * Retrait de l'élement au sommet de la pile (i.e. pop)
+	 *
+	 * @requires !estVide();
+	 * @ensures (getNbElements() == \old(getNbElements()) - 1);
+	 *
+	 */
+	public void depiler() {
+		pile.depiler();
+	}
+
+	/**
+	 * Nombre d'éléments du sommet dominés par l'élément spécifié, i.e. qui
+	 * seraient retirés par son ajout.
+	 *
+	 * @param e un élément
+	 * @return le nombre d'éléments du sommet dominés par e
+	 *
+	 * @ensures \result >= 0 && \result <= getNbElements();
+	 *
+	 * @pure
+	 */
+	public int getNbDomines(int e) {
+		int n = pile.getNbElements();
+		int k = 0;
+		if (croissante) {
+			while (k < n && pile.getElement(k) > e) {
+				k++;
+			}
+		} else {
+			while (k < n && pile.getElement(k) < e) {
+				k++;
+			}
+		}
+		return k;
+	}
+
+	/**
+	 * Retire les éléments du sommet dominés par l'élément spécifié, en les
+	 * transmettant du sommet vers la base à l'action spécifiée, puis ajoute cet
+	 * élément au sommet.
+	 *
+	 * @param e       l'élément à ajouter
+	 * @param retires l'action appliquée à chaque élément retiré
+	 * @return le nombre d'éléments retirés
+	 *
+	 * @requires retires != null;
+	 * @requires getNbElements() - getNbDomines(e) < getNbMaxElements();
+	 * @ensures getSommet() == e;
+	 * @ensures getNbElements() == \old(getNbElements()) - \result + 1;
+	 *
+	 */
+	public int empilerMonotone(int e, IntConsumer retires) {
+		int k = getNbDomines(e);
+		for (int i = 0; i < k; i++) {
+			retires.accept(pile.getElement(i));
+		}
+		remplacer(k, e);
+		return k;
+	}
+
+	/**
+	 * Retire les éléments du sommet dominés par l'élément spécifié, en les
+	 * copiant du sommet vers la base dans le tableau spécifié, puis ajoute cet
+	 * élément au sommet.
+	 *
+	 * @param e    l'élément à ajouter
+	 * @param dest le tableau recevant les éléments retirés
+	 * @return le nombre d'éléments retirés
+	 *
+	 * @requires dest != null;
+	 * @requires dest.length >= getNbDomines(e);
+	 * @requires getNbElements() - getNbDomines(e) < getNbMaxElements();
+	 * @ensures getSommet() == e;
+	 * @ensures getNbElements() == \old(getNbElements()) - \result + 1;
+	 *
+	 */
+	public int empilerMonotone(int e, int[] dest) {
+		int k = getNbDomines(e);
+		pile.peek(k, dest);
+		remplacer(k, e);
+		return k;
+	}
+
+	/**
+	 * Retire les k éléments du sommet puis empile e.
+	 */
+	private void remplacer(int k, int e) {
+		pile.depilerFrame(k);
+		pile.empiler(e);
+	}
+
+	/**
+	 * Pour chaque élément du flot spécifié, calcule l'indice du premier élément
+	 * suivant strictement supérieur, en une seule passe.
+	 *
+	 * @param valeurs le flot d'entiers à traiter
+	 * @return un tableau t de même longueur que le flot tel que t[i] est
+	 *         l'indice du premier élément suivant strictement supérieur au
+	 *         i-ème, -1 s'il n'existe pas
+	 *
+	 * @requires valeurs != null;
+	 */
+	public static int[] indicesSuperieurSuivant(IntStream valeurs) {
+		return indicesSuivant(valeurs, false);
+	}
+
+	/**
+	 * Pour chaque élément du flot spécifié, calcule l'indice du premier élément
+	 * suivant strictement inférieur, en une seule passe.
+	 *
+	 * @param valeurs le flot d'entiers à traiter
+	 * @return un tableau t de même longueur que le flot tel que t[i] est
+	 *         l'indice du premier élément suivant strictement inférieur au
+	 *         i-ème, -1 s'il n'existe pas
+	 *
+	 * @requires valeurs != null;
+	 */
+	public static int[] indicesInferieurSuivant(IntStream valeurs) {
+		return indicesSuivant(valeurs, true);
+	}
+
+	private static int[] indicesSuivant(IntStream valeurs, boolean croissante) {
+		int capacite = 1024;
+		PileIntMonotone monotone = new PileIntMonotone(capacite, croissante);
+		// Indices des éléments en attente, parallèle à monotone:
+		PileInt indices = new PileInt(capacite);
+		int[] resultat = new int[capacite];
+		int n = 0;
+		PrimitiveIterator.OfInt it = valeurs.iterator();
+		while (it.hasNext()) {
+			int e = it.nextInt();
+			if (n == resultat.length) {
+				resultat = Arrays.copyOf(resultat, 2 * n);
+			}
+			resultat[n] = -1;
+			int k = monotone.getNbDomines(e);
+			if (monotone.getNbElements() - k == monotone.getNbMaxElements()) {
+				monotone = monotone.agrandir();
+				indices = agrandir(indices);
+			}
+			monotone.remplacer(k, e);
+			for (int i = 0; i < k; i++) {
+				resultat[indices.getElement(i)] = n;
+			}
+			indices.depilerFrame(k);
+			indices.empiler(n);
+			n++;
+		}
+		return Arrays.copyOf(resultat, n);
+	}
+
+	private PileIntMonotone agrandir() {
+		PileIntMonotone p = new PileIntMonotone(2 * getNbMaxElements(), croissante);
+		p.pile.empilerFrame(contenu(pile), 0, pile.getNbElements());
+		return p;
+	}
+
+	private static PileInt agrandir(PileInt pile) {
+		PileInt p = new PileInt(2 * pile.getNbMaxElements());
+		p.empilerFrame(contenu(pile), 0, pile.getNbElements());
+		return p;
+	}
+
+	/**
+	 * Les éléments de la pile spécifiée, de la base vers le sommet.
+	 */
+	private static int[] contenu(PileInt pile) {
+		int[] tab = new int[pile.getNbElements()];
+		pile.asIntBuffer().get(tab);
+		return tab;
+	}
+
+	/**
+	 * Renvoie une représentation de cette instance sous forme de chaîne de
+	 * caractère.
+	 *
+	 * @return une chaîne de caractères représentant cette instance.
+	 *
+	 * @pure
+	 */
+	public String toString() {
+		return "PileIntMonotone(" + (croissante ? "croissante" : "décroissante") + "):" + pile;
+	}
+}
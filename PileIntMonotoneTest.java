@@ -0,0 +1,139 @@
+/**
+ *
+ */
+package pilesimple.test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import test.BaseDataProviders;
+import test.RapportGraine;
+
+import pilesimple.PileIntMonotone;
+
+/**
+ * Tests unitaires pour la classe PileIntMonotone.
+ *
+ * @author Marc Champesme
+ * @version 1.8.0
+ *
+ */
+@ExtendWith(RapportGraine.class)
+class PileIntMonotoneTest {
+	//////////////////////////////////////////////////
+	// Méthodes produisant les données de test:
+	//////////////////////////////////////////////////
+	public static IntStream tailleProvider() {
+		return IntStream.of(0, 1, 2, 10, 100, 3000);
+	}
+	//////////////////////////////////////////////////
+	// Fin des méthodes produisant les données de test
+	//////////////////////////////////////////////////
+
+	/**
+	 * Teste l'invariant de classe pour l'instance spécifiée.
+	 *
+	 * @param self l'instance à tester
+	 */
+	public void assertInvariant(PileIntMonotone self) {
+		assertTrue(self.getNbElements() >= 0);
+		assertTrue(self.getNbElements() <= self.getNbMaxElements());
+		for (int i = 1; i < self.getNbElements(); i++) {
+			if (self.estCroissante()) {
+				assertTrue(self.getElement(i - 1) >= self.getElement(i));
+			} else {
+				assertTrue(self.getElement(i - 1) <= self.getElement(i));
+			}
+		}
+	}
+
+	private static int[] tableauAleatoire(int taille, long graine) {
+		// Peu de valeurs distinctes, pour produire des égalités:
+		return new SplittableRandom(graine).ints(taille, -20, 20).toArray();
+	}
+
+	/**
+	 * Test method for {@link pilesimple.PileIntMonotone#empilerMonotone(int, java.util.function.IntConsumer)}
+	 * and {@link pilesimple.PileIntMonotone#empilerMonotone(int, int[])}.
+	 */
+	@Test
+	public final void testEmpilerMonotone() {
+		int[] valeurs = tableauAleatoire(200, BaseDataProviders.getGraine());
+		for (boolean croissante : new boolean[] { true, false }) {
+			PileIntMonotone parAction = new PileIntMonotone(valeurs.length, croissante);
+			PileIntMonotone parTableau = new PileIntMonotone(valeurs.length, croissante);
+			int[] retires = new int[valeurs.length];
+			int[] copies = new int[valeurs.length];
+			for (int e : valeurs) {
+				int nbDomines = parAction.getNbDomines(e);
+				int nbAvant = parAction.getNbElements();
+				int[] attendus = new int[nbDomines];
+				for (int i = 0; i < nbDomines; i++) {
+					attendus[i] = parAction.getElement(i);
+				}
+				int[] nbRetires = new int[1];
+				int k = parAction.empilerMonotone(e, x -> retires[nbRetires[0]++] = x);
+				assertEquals(nbDomines, k);
+				assertEquals(k, nbRetires[0]);
+				assertEquals(k, parTableau.empilerMonotone(e, copies));
+				for (int i = 0; i < k; i++) {
+					assertEquals(attendus[i], retires[i]);
+					assertEquals(attendus[i], copies[i]);
+					assertTrue(croissante ? attendus[i] > e : attendus[i] < e);
+				}
+				assertEquals(e, parAction.getSommet());
+				assertEquals(nbAvant - k + 1, parAction.getNbElements());
+				assertEquals(parAction.toString(), parTableau.toString());
+				assertInvariant(parAction);
+			}
+		}
+	}
+
+	/**
+	 * Test method for {@link pilesimple.PileIntMonotone#indicesSuperieurSuivant(IntStream)}
+	 * and {@link pilesimple.PileIntMonotone#indicesInferieurSuivant(IntStream)}.
+	 */
+	@ParameterizedTest
+	@MethodSource("tailleProvider")
+	public final void testIndicesSuivant(int taille) {
+		int[] valeurs = tableauAleatoire(taille, BaseDataProviders.getGraine() + taille);
+		int[] superieurs = PileIntMonotone.indicesSuperieurSuivant(IntStream.of(valeurs));
+		int[] inferieurs = PileIntMonotone.indicesInferieurSuivant(IntStream.of(valeurs));
+		int[] superieursAttendus = new int[taille];
+		int[] inferieursAttendus = new int[taille];
+		for (int i = 0; i < taille; i++) {
+			superieursAttendus[i] = -1;
+			inferieursAttendus[i] = -1;
+			for (int j = taille - 1; j > i; j--) {
+				if (valeurs[j] > valeurs[i]) {
+					superieursAttendus[i] = j;
+				}
+				if (valeurs[j] < valeurs[i]) {
+					inferieursAttendus[i] = j;
+				}
+			}
+		}
+		assertArrayEquals(superieursAttendus, superieurs);
+		assertArrayEquals(inferieursAttendus, inferieurs);
+	}
+
+	/**
+	 * Teste indicesSuperieurSuivant sur une suite strictement décroissante, où
+	 * tous les éléments restent en attente jusqu'à la fin du flot.
+	 */
+	@Test
+	public final void testIndicesSuperieurSuivantDecroissante() {
+		int[] resultat = PileIntMonotone.indicesSuperieurSuivant(IntStream.range(0, 5000).map(i -> -i));
+		assertEquals(5000, resultat.length);
+		assertTrue(IntStream.of(resultat).allMatch(i -> i == -1));
+	}
+}
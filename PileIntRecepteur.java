@@ -0,0 +1,170 @@
+package pilesimple;
+
+import java.util.Arrays;
+import java.util.concurrent.Flow;
+
+/**
+ * Abonné <code>Flow.Subscriber</code> qui empile dans une <code>PileInt</code>
+ * les lots qu'il reçoit, en ne demandant que les lots que la pile peut encore
+ * accueillir.
+ *
+ * Les éléments de chaque lot sont empilés dans l'ordre du tableau : recevoir
+ * les lots d'un {@link PileIntEmetteur} équivaut à retirer un à un les
+ * éléments de la pile source pour les ajouter à la pile cible. La taille
+ * maximale des lots, fixée à la construction, permet de borner la demande :
+ * autant de lots complets que la pile cible peut en accueillir, puis un
+ * dernier lot lorsqu'il ne reste de place que pour une partie de lot. Les
+ * éléments d'un lot qui ne tiennent pas dans la pile cible sont conservés,
+ * dans l'ordre, et empilés par {@link #reprendre()} dès que de la place est
+ * libérée ; aucun élément reçu n'est perdu, et au plus un lot est ainsi en
+ * attente. Une fois la pile pleine, plus rien n'est demandé jusqu'à ce que de
+ * la place soit libérée et signalée par {@link #reprendre()}.
+ *
+ * La pile cible est modifiée sous le verrou de cette instance : tout autre
+ * accès à la pile pendant l'abonnement doit se faire en détenant ce verrou.
+ *
+ * @author Marc Champesme
+ * @version 1.8.0
+ */
+public class PileIntRecepteur implements Flow.Subscriber<int[]> {
+	private final PileInt cible;
+	private final int tailleMaxLot;
+	private Flow.Subscription souscription;
+	// Lots demandés et pas encore reçus:
+	private long enAttente;
+	// Éléments reçus qui n'ont pas encore trouvé place dans la pile cible,
+	// de debutReste (inclus) à reste.length (exclu):
+	private int[] reste = new int[0];
+	private int debutReste;
+	private boolean termine;
+	private Throwable erreur;
+
+	/**
+	 * Initialise un abonné qui remplit la pile spécifiée.
+	 *
+	 * @param cible        la pile à remplir
+	 * @param tailleMaxLot la taille maximale des lots reçus
+	 *
+	 * @requires cible != null;
+	 * @requires tailleMaxLot > 0;
+	 */
+	public PileIntRecepteur(PileInt cible, int tailleMaxLot) {
+		this.cible = cible;
+		this.tailleMaxLot = tailleMaxLot;
+	}
+
+	/**
+	 * Consultation de la pile remplie par cet abonné.
+	 *
+	 * @return la pile cible
+	 *
+	 * @pure
+	 */
+	public PileInt getPile() {
+		return cible;
+	}
+
+	/**
+	 * La source a-t-elle signalé la fin du flot, par <code>onComplete</code> ou
+	 * <code>onError</code>, tous les éléments reçus ayant été empilés ?
+	 *
+	 * @return true si le flot est terminé et qu'aucun élément reçu n'attend de
+	 *         place dans la pile cible
+	 *
+	 * @pure
+	 */
+	public synchronized boolean estTermine() {
+		return termine && debutReste == reste.length;
+	}
+
+	/**
+	 * Consultation de l'erreur ayant terminé le flot.
+	 *
+	 * @return l'erreur reçue ou détectée, null si aucune
+	 *
+	 * @pure
+	 */
+	public synchronized Throwable getErreur() {
+		return erreur;
+	}
+
+	public void onSubscribe(Flow.Subscription souscription) {
+		boolean dejaAbonne;
+		synchronized (this) {
+			dejaAbonne = (this.souscription != null);
+			if (!dejaAbonne) {
+				this.souscription = souscription;
+			}
+		}
+		if (dejaAbonne) {
+			souscription.cancel();
+		} else {
+			reprendre();
+		}
+	}
+
+	public void onNext(int[] lot) {
+		synchronized (this) {
+			enAttente--;
+			if (debutReste == reste.length) {
+				reste = lot;
+			} else {
+				int[] suite = Arrays.copyOfRange(reste, debutReste, reste.length + lot.length);
+				System.arraycopy(lot, 0, suite, reste.length - debutReste, lot.length);
+				reste = suite;
+			}
+			debutReste = 0;
+		}
+		reprendre();
+	}
+
+	public synchronized void onError(Throwable erreur) {
+		termine = true;
+		this.erreur = erreur;
+	}
+
+	public synchronized void onComplete() {
+		termine = true;
+	}
+
+	/**
+	 * Empile les éléments reçus qui attendaient de la place, puis demande à la
+	 * source autant de lots que la pile cible peut en accueillir, compte tenu
+	 * des lots déjà demandés. À appeler après avoir libéré de la place dans la
+	 * pile cible.
+	 */
+	public void reprendre() {
+		Flow.Subscription s;
+		long n;
+		synchronized (this) {
+			int k = Math.min(reste.length - debutReste, cible.getNbMaxElements() - cible.getNbElements());
+			cible.empilerFrame(reste, debutReste, k);
+			debutReste += k;
+			s = souscription;
+			n = demander();
+		}
+		// Hors du verrou: la source peut émettre les lots dans cet appel.
+		if (n > 0) {
+			s.request(n);
+		}
+	}
+
+	/**
+	 * Enregistre et renvoie le nombre de lots à demander.
+	 */
+	private long demander() {
+		if (souscription == null || termine) {
+			return 0;
+		}
+		long place = cible.getNbMaxElements() - cible.getNbElements() - (reste.length - debutReste)
+				- enAttente * tailleMaxLot;
+		long n = Math.max(0, place / tailleMaxLot);
+		if (0 < place && place < tailleMaxLot) {
+			// Dernier lot, dont la partie qui ne tient pas dans la pile cible
+			// est conservée:
+			n = 1;
+		}
+		enAttente += n;
+		return n;
+	}
+}
@@ -14,16 +14,29 @@ import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.junit.jupiter.api.Assumptions.assumeFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.ReadOnlyBufferException;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
 import test.BaseDataProviders;
+import test.RapportGraine;
 
 import pilesimple.PileInt;
+import pilesimple.PileIntDelta;
+import pilesimple.PileIntFigee;
 
 /**
  * Tests unitaires pour la classe PileInt.
@@ -33,6 +46,7 @@ import pilesimple.PileInt;
  * @version 4 juin 2020
  *
  */
+@ExtendWith(RapportGraine.class)
 class PileIntTest {
 	//////////////////////////////////////////////////
 	// Méthodes produisant les données de test:
@@ -294,6 +308,194 @@ class PileIntTest {
 		assertInvariant(self);
 	}
 
+	/**
+	 * Test method for {@link pilesimple.PileInt#getElement(int)}.
+	 *
+	 * Consultation de l'élément situé à la profondeur spécifiée, sans le
+	 * retirer.
+	 *
+	 * @requires profondeur >= 0;
+	 * @requires profondeur < getNbElements();
+	 * @ensures (profondeur == 0) ==> (\result == getSommet());
+	 *
+	 * @pure
+	 */
+	@ParameterizedTest
+	@MethodSource("pileIntAndIntProvider")
+	public final void testGetElement(PileInt self, int profondeur) {
+		assumeTrue(self != null);
+		// Invariant
+		assertInvariant(self);
+
+		// préconditions
+		assumeTrue(profondeur < self.getNbElements());
+
+		// Purity
+		saveState(self);
+
+		// Exécution
+		int result = self.getElement(profondeur);
+
+		// Post conditions
+		PileInt copie = (PileInt) self.clone();
+		for (int i = 0; i < profondeur; i++) {
+			copie.depiler();
+		}
+		assertEquals(copie.getSommet(), result);
+
+		// Purity
+		assertPurity(self);
+
+		// Invariant
+		assertInvariant(self);
+	}
+
+	/**
+	 * Test method for {@link pilesimple.PileInt#peek(int, int[])}.
+	 *
+	 * Copie les k éléments du sommet de la pile dans le tableau spécifié, sans
+	 * les retirer.
+	 *
+	 * @requires k >= 0;
+	 * @requires k <= getNbElements();
+	 * @requires dest.length >= k;
+	 * @ensures (\forall int i; i >= 0 && i < k; dest[i] == getElement(i));
+	 *
+	 * @pure
+	 */
+	@ParameterizedTest
+	@MethodSource("pileIntAndIntProvider")
+	public final void testPeek(PileInt self, int k) {
+		assumeTrue(self != null);
+		// Invariant
+		assertInvariant(self);
+
+		// préconditions
+		assumeTrue(k <= self.getNbElements());
+		int[] dest = new int[k + 1];
+		dest[k] = 12345;
+
+		// Purity
+		saveState(self);
+
+		// Exécution
+		self.peek(k, dest);
+
+		// Post conditions
+		for (int i = 0; i < k; i++) {
+			assertEquals(self.getElement(i), dest[i]);
+		}
+		assertEquals(12345, dest[k]);
+
+		// Purity
+		assertPurity(self);
+
+		// Invariant
+		assertInvariant(self);
+	}
+
+	/**
+	 * Test method for {@link pilesimple.PileInt#asIntBuffer()}.
+	 *
+	 * Renvoie une vue en lecture seule des éléments de la pile, sans copie.
+	 *
+	 * @ensures \result.isReadOnly();
+	 * @ensures \result.remaining() == getNbElements();
+	 * @ensures \result.capacity() == getNbElements();
+	 *
+	 * @pure
+	 */
+	@ParameterizedTest
+	@MethodSource("pileIntProvider")
+	public final void testAsIntBuffer(PileInt self) {
+		assumeTrue(self != null);
+		// Invariant
+		assertInvariant(self);
+
+		// Purity
+		saveState(self);
+
+		// Exécution
+		IntBuffer result = self.asIntBuffer();
+
+		// Post conditions
+		assertTrue(result.isReadOnly());
+		assertEquals(self.getNbElements(), result.remaining());
+		assertEquals(self.getNbElements(), result.capacity());
+		for (int i = 0; i < self.getNbElements(); i++) {
+			assertEquals(self.getElement(i), result.get(self.getNbElements() - 1 - i));
+		}
+		// Les cases libres du tableau ne sont pas accessibles:
+		result.clear();
+		assertEquals(self.getNbElements(), result.limit());
+		assertThrows(ReadOnlyBufferException.class, () -> result.put(0, 1));
+
+		// Purity
+		assertPurity(self);
+
+		// Invariant
+		assertInvariant(self);
+	}
+
+	/**
+	 * Test method for {@link pilesimple.PileInt#freeze()}.
+	 *
+	 * Renvoie un instantané immuable de la pile.
+	 *
+	 * @ensures \result.estCopieDe(this);
+	 * @ensures \result.hashCode() == hashCode();
+	 * @ensures \result.toString().equals(toString());
+	 *
+	 * @pure
+	 */
+	@ParameterizedTest
+	@MethodSource("pileIntProvider")
+	public final void testFreeze(PileInt self) {
+		assumeTrue(self != null);
+		// Invariant
+		assertInvariant(self);
+
+		// Purity
+		saveState(self);
+
+		// Exécution
+		PileIntFigee result = self.freeze();
+
+		// Post conditions
+		assertTrue(result.estCopieDe(self));
+		assertEquals(self.hashCode(), result.hashCode());
+		assertEquals(self.toString(), result.toString());
+		assertTrue(result.toString() == result.toString());
+		assertEquals(self.getNbElements(), result.getNbElements());
+		assertEquals(self.getNbMaxElements(), result.getNbMaxElements());
+		assertEquals(self.estVide(), result.estVide());
+		assertEquals(self.estPleine(), result.estPleine());
+		assertEquals(self.asIntBuffer(), result.asIntBuffer());
+		assertTrue(result.asIntBuffer().isReadOnly());
+		int[] dest = new int[self.getNbElements()];
+		result.peek(dest.length, dest);
+		for (int i = 0; i < self.getNbElements(); i++) {
+			assertEquals(self.getElement(i), result.getElement(i));
+			assertEquals(self.getElement(i), dest[i]);
+		}
+		assertEquals(result, self.freeze());
+		assertEquals(self, result.degeler());
+
+		// Purity
+		assertPurity(self);
+
+		// Invariant
+		assertInvariant(self);
+
+		// L'instantané ne suit pas les modifications de la pile:
+		if (!self.estVide()) {
+			int sommet = self.getSommet();
+			self.depiler();
+			assertEquals(sommet, result.getSommet());
+			assertFalse(result.estCopieDe(self));
+		}
+	}
+
 	/**
 	 * Test method for {@link pilesimple.PileInt#empiler(int)}.
 	 *
@@ -366,6 +568,379 @@ class PileIntTest {
 		assertInvariant(self);
 	}
 
+	/**
+	 * Vérification des préconditions de empiler, depiler et getSommet en mode
+	 * contrats (-Dpilesimple.contrats=true).
+	 */
+	@ParameterizedTest
+	@MethodSource("pileIntProvider")
+	public final void testContrats(PileInt self) {
+		assumeTrue(self != null);
+		assumeTrue(Boolean.getBoolean("pilesimple.contrats"));
+
+		while (!self.estPleine()) {
+			self.empiler(0);
+		}
+		assertThrows(IllegalStateException.class, () -> self.empiler(0));
+		while (!self.estVide()) {
+			self.depiler();
+		}
+		assertThrows(IllegalStateException.class, () -> self.depiler());
+		assertThrows(IllegalStateException.class, () -> self.getSommet());
+
+		// Invariant
+		assertInvariant(self);
+	}
+
+	/**
+	 * Test method for {@link pilesimple.PileInt#mark()}.
+	 *
+	 * Pose une marque (point de sauvegarde) sur l'état courant de la pile.
+	 *
+	 * @ensures \result == \old(getNbMarks());
+	 * @ensures getNbMarks() == \old(getNbMarks()) + 1;
+	 *
+	 */
+	@ParameterizedTest
+	@MethodSource("pileIntProvider")
+	public final void testMark(PileInt self) {
+		assumeTrue(self != null);
+		// Invariant
+		assertInvariant(self);
+
+		// Old
+		int oldNbMarks = self.getNbMarks();
+
+		// Purity
+		saveState(self);
+
+		// Exécution
+		int result = self.mark();
+
+		// Post conditions
+		assertEquals(oldNbMarks, result);
+		assertEquals(oldNbMarks + 1, self.getNbMarks());
+
+		// La pose d'une marque ne modifie pas le contenu de la pile
+		assertPurity(self);
+
+		// Invariant
+		assertInvariant(self);
+	}
+
+	/**
+	 * Test method for {@link pilesimple.PileInt#rollbackTo(int)}.
+	 *
+	 * Restaure l'état de la pile au moment de la pose de la marque spécifiée.
+	 * Cette marque et toutes celles posées après elle sont supprimées.
+	 *
+	 * @requires mark >= 0;
+	 * @requires mark < getNbMarks();
+	 * @ensures getNbMarks() == mark;
+	 *
+	 */
+	@ParameterizedTest
+	@MethodSource("pileIntAndIntProvider")
+	public final void testRollbackTo(PileInt self, int nbOperations) {
+		assumeTrue(self != null);
+		// Invariant
+		assertInvariant(self);
+
+		// Marques imbriquées avec des modifications entre chaque pose
+		PileInt etat0 = (PileInt) self.clone();
+		int mark0 = self.mark();
+		modifierAleatoirement(self, nbOperations);
+		PileInt etat1 = (PileInt) self.clone();
+		int mark1 = self.mark();
+		modifierAleatoirement(self, nbOperations);
+
+		// Exécution
+		self.rollbackTo(mark1);
+
+		// Post conditions
+		assertEquals(etat1, self);
+		assertEquals(mark1, self.getNbMarks());
+		assertInvariant(self);
+
+		// Exécution
+		modifierAleatoirement(self, nbOperations);
+		self.rollbackTo(mark0);
+
+		// Post conditions
+		assertEquals(etat0, self);
+		assertEquals(mark0, self.getNbMarks());
+
+		// Invariant
+		assertInvariant(self);
+	}
+
+	/**
+	 * Test method for {@link pilesimple.PileInt#commit(int)}.
+	 *
+	 * Supprime la marque spécifiée et toutes celles posées après elle, en
+	 * conservant les modifications effectuées depuis leur pose.
+	 *
+	 * @requires mark >= 0;
+	 * @requires mark < getNbMarks();
+	 * @ensures getNbMarks() == mark;
+	 *
+	 */
+	@ParameterizedTest
+	@MethodSource("pileIntAndIntProvider")
+	public final void testCommit(PileInt self, int nbOperations) {
+		assumeTrue(self != null);
+		// Invariant
+		assertInvariant(self);
+
+		PileInt etat0 = (PileInt) self.clone();
+		int mark0 = self.mark();
+		modifierAleatoirement(self, nbOperations);
+		int mark1 = self.mark();
+		modifierAleatoirement(self, nbOperations);
+		PileInt etat2 = (PileInt) self.clone();
+
+		// Exécution
+		self.commit(mark1);
+
+		// Post conditions
+		assertEquals(etat2, self);
+		assertEquals(mark1, self.getNbMarks());
+
+		// La marque englobante doit toujours pouvoir être restaurée
+		self.rollbackTo(mark0);
+		assertEquals(etat0, self);
+
+		// Invariant
+		assertInvariant(self);
+	}
+
+	/**
+	 * Test method for {@link pilesimple.PileInt#diff(PileInt)} and
+	 * {@link pilesimple.PileInt#patch(pilesimple.PileIntDelta)}.
+	 *
+	 * Calcule la différence permettant de passer de cette pile à la pile
+	 * spécifiée puis l'applique à une copie de cette pile.
+	 *
+	 * @ensures \result.getNbElementsCible() == cible.getNbElements();
+	 * @ensures \result.getLongueurPrefixe() <= getNbElements();
+	 *
+	 * @pure
+	 */
+	@ParameterizedTest
+	@MethodSource("pileIntAndIntProvider")
+	public final void testDiffPatch(PileInt self, int nbOperations) throws IOException {
+		assumeTrue(self != null);
+		// Invariant
+		assertInvariant(self);
+
+		PileInt cible = (PileInt) self.clone();
+		modifierAleatoirement(cible, nbOperations);
+
+		// Purity
+		saveState(self);
+
+		// Exécution
+		PileIntDelta result = self.diff(cible);
+
+		// Post conditions
+		assertEquals(cible.getNbElements(), result.getNbElementsCible());
+		assertTrue(result.getLongueurPrefixe() <= self.getNbElements());
+		assertPurity(self);
+
+		// Sérialisation puis application sur une copie
+		ByteArrayOutputStream octets = new ByteArrayOutputStream();
+		result.ecrire(new DataOutputStream(octets));
+		PileIntDelta lu = PileIntDelta.lire(new DataInputStream(new ByteArrayInputStream(octets.toByteArray())));
+		assertEquals(result, lu);
+		PileInt copie = (PileInt) self.clone();
+		copie.patch(lu);
+		assertEquals(cible, copie);
+
+		// Invariant
+		assertInvariant(self);
+		assertInvariant(copie);
+	}
+
+	/**
+	 * Un delta dont les longueurs lues sont erronées est refusé par une
+	 * IOException, sans allouer de tableau de la taille annoncée.
+	 */
+	@Test
+	public final void testLireDeltaInvalide() throws IOException {
+		ByteArrayOutputStream octets = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(octets);
+		out.writeInt(0);
+		out.writeInt(Integer.MAX_VALUE);
+		out.writeInt(42);
+		byte[] tronque = octets.toByteArray();
+		assertThrows(EOFException.class,
+				() -> PileIntDelta.lire(new DataInputStream(new ByteArrayInputStream(tronque))));
+		assertThrows(IOException.class,
+				() -> PileIntDelta.lire(new DataInputStream(new ByteArrayInputStream(tronque)), 100));
+
+		octets.reset();
+		PileInt pleine = new PileInt(3);
+		for (int i = 1; i <= 3; i++) {
+			pleine.empiler(i);
+		}
+		new PileInt(3).diff(pleine).ecrire(out);
+		byte[] valide = octets.toByteArray();
+		assertEquals(3, PileIntDelta.lire(new DataInputStream(new ByteArrayInputStream(valide)), 3)
+				.getNbElementsCible());
+		assertThrows(IOException.class,
+				() -> PileIntDelta.lire(new DataInputStream(new ByteArrayInputStream(valide)), 2));
+	}
+
+	/**
+	 * Effectue nbOperations ajouts ou retraits aléatoires en respectant les
+	 * préconditions de empiler et depiler.
+	 */
+	private static void modifierAleatoirement(PileInt self, int nbOperations) {
+		for (int i = 0; i < nbOperations; i++) {
+			if (!self.estVide() && (self.estPleine() || BaseDataProviders.randBool())) {
+				self.depiler();
+			} else if (!self.estPleine()) {
+				self.empiler(BaseDataProviders.randInt(1000));
+			}
+		}
+	}
+
+	/**
+	 * Test method for {@link pilesimple.PileInt#empilerFrame(int, int, int)}.
+	 *
+	 * Ajout au sommet de la pile d'un enregistrement de trois éléments.
+	 *
+	 * @requires getNbElements() + 3 <= getNbMaxElements();
+	 * @ensures getSommet() == c;
+	 * @ensures getElement(1) == b;
+	 * @ensures getElement(2) == a;
+	 * @ensures (getNbElements() == \old(getNbElements()) + 3);
+	 *
+	 */
+	@ParameterizedTest
+	@MethodSource("pileIntAndIntProvider")
+	public final void testEmpilerFrame(PileInt self, int e) {
+		assumeTrue(self != null);
+		// Invariant
+		assertInvariant(self);
+
+		// préconditions
+		assumeTrue(self.getNbElements() + 3 <= self.getNbMaxElements());
+
+		// Old
+		int oldNbElements = self.getNbElements();
+
+		// Exécution
+		self.empilerFrame(e, e + 1, e + 2);
+
+		// Post conditions
+		assertEquals(e + 2, self.getSommet());
+		assertEquals(e + 1, self.getElement(1));
+		assertEquals(e, self.getElement(2));
+		assertEquals(oldNbElements + 3, self.getNbElements());
+
+		// Invariant
+		assertInvariant(self);
+	}
+
+	/**
+	 * Test method for {@link pilesimple.PileInt#empilerFrame(int[], int, int)}
+	 * and {@link pilesimple.PileInt#depilerFrame(int)}.
+	 *
+	 * @requires getNbElements() + nb <= getNbMaxElements();
+	 * @ensures (\forall int i; i >= 0 && i < nb; getElement(i) == elements[debut + nb - 1 - i]);
+	 * @ensures (getNbElements() == \old(getNbElements()) + nb);
+	 *
+	 */
+	@ParameterizedTest
+	@MethodSource("pileIntAndIntProvider")
+	public final void testEmpilerDepilerFrameTableau(PileInt self, int nb) {
+		assumeTrue(self != null);
+		// Invariant
+		assertInvariant(self);
+
+		// préconditions
+		assumeTrue(self.getNbElements() + nb <= self.getNbMaxElements());
+		int[] elements = new int[nb + 2];
+		for (int i = 0; i < elements.length; i++) {
+			elements[i] = BaseDataProviders.randInt(1000);
+		}
+
+		// Old
+		PileInt old = (PileInt) self.clone();
+
+		// Exécution
+		self.empilerFrame(elements, 1, nb);
+
+		// Post conditions
+		for (int i = 0; i < nb; i++) {
+			assertEquals(elements[nb - i], self.getElement(i));
+		}
+		assertEquals(old.getNbElements() + nb, self.getNbElements());
+		assertInvariant(self);
+
+		// Exécution
+		self.depilerFrame(nb);
+
+		// Post conditions
+		assertEquals(old, self);
+
+		// Invariant
+		assertInvariant(self);
+	}
+
+	/**
+	 * Test method for {@link pilesimple.PileInt#ouvrirFrame()} and
+	 * {@link pilesimple.PileInt#fermerFrame(int)}.
+	 *
+	 * @ensures getNbElements() == marqueur;
+	 *
+	 */
+	@ParameterizedTest
+	@MethodSource("pileIntAndIntProvider")
+	public final void testOuvrirFermerFrame(PileInt self, int nbOperations) {
+		assumeTrue(self != null);
+		// Invariant
+		assertInvariant(self);
+
+		// Old
+		PileInt old = (PileInt) self.clone();
+
+		// Exécution
+		int marqueur = self.ouvrirFrame();
+		while (nbOperations > 0 && self.getNbElements() + 2 <= self.getNbMaxElements()) {
+			self.empilerFrame(nbOperations, -nbOperations);
+			nbOperations--;
+		}
+		self.fermerFrame(marqueur);
+
+		// Post conditions
+		assertEquals(old, self);
+
+		// Invariant
+		assertInvariant(self);
+	}
+
+	/**
+	 * Les enregistrements écrasant des éléments sont annulés par rollbackTo.
+	 */
+	@ParameterizedTest
+	@MethodSource("pileIntProvider")
+	public final void testFrameRollbackTo(PileInt self) {
+		assumeTrue(self != null);
+		assumeTrue(self.getNbElements() >= 3);
+		assumeFalse(self.estPleine());
+		PileInt old = (PileInt) self.clone();
+		int mark = self.mark();
+		self.depilerFrame(3);
+		self.empilerFrame(-1, -2, -3);
+		self.fermerFrame(self.getNbElements() - 2);
+		self.empilerFrame(-4, -5);
+		self.empilerFrame(new int[] { -6, -7 }, 1, 1);
+		self.rollbackTo(mark);
+		assertEquals(old, self);
+	}
+
 	/**
 	 * Test method for {@link pilesimple.PileInt#estPleine()}.
 	 *
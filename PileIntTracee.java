@@ -0,0 +1,285 @@
+package pilesimple;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Une <code>PileInt</code> dont les appels à <code>empiler</code>,
+ * <code>depiler</code> et <code>getSommet</code> sont enregistrés par un
+ * {@link EnregistreurTrace}, afin d'être rejoués hors ligne contre d'autres
+ * implémentations de pile. Une opération n'est enregistrée qu'après avoir été
+ * exécutée.
+ *
+ * Les autres opérations modifiant la pile (<code>empilerFrame</code>,
+ * <code>depilerFrame</code>, <code>fermerFrame</code>, <code>patch</code> et
+ * <code>rollbackTo</code>) sont enregistrées sous forme d'une suite de retraits
+ * et d'ajouts produisant le même état : le rejeu d'une trace aboutit toujours
+ * à la pile tracée. Les marques ne modifiant pas les éléments,
+ * <code>mark</code> et <code>commit</code> ne sont pas enregistrés.
+ *
+ * @author Marc Champesme
+ * @version 1.8.0
+ * @invariant (0 <= getNbElements()) && (getNbElements() <= getNbMaxElements());
+ */
+public class PileIntTracee extends PileInt {
+	private final EnregistreurTrace enregistreur;
+
+	/**
+	 * Initialise une pile vide tracée avec la capacité maximale spécifiée.
+	 *
+	 * @param nbMaxElements la capacité maximale de la pile
+	 * @param enregistreur  l'enregistreur des opérations
+	 *
+	 * @requires nbMaxElements >= 0;
+	 * @requires enregistreur != null;
+	 * @ensures estVide();
+	 * @ensures (getNbMaxElements() == nbMaxElements);
+	 *
+	 */
+	public PileIntTracee(int nbMaxElements, EnregistreurTrace enregistreur) {
+		super(nbMaxElements);
+		this.enregistreur = enregistreur;
+	}
+
+	/**
+	 * Consultation du sommet de pile
+	 *
+	 * @return le sommet de pile
+	 *
+	 * @requires !estVide();
+	 *
+	 * @throws UncheckedIOException en cas d'erreur d'écriture de la trace
+	 *
+	 * @pure
+	 */
+	public int getSommet() {
+		int sommet = super.getSommet();
+		try {
+			enregistreur.sommet();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return sommet;
+	}
+
+	/**
+	 * Ajout au sommet de la pile (i.e. push).
+	 *
+	 * @param e L'élement à ajouter
+	 *
+	 * @requires !estPleine();
+	 * @ensures !estVide();
+	 * @ensures getSommet() == e;
+	 * @ensures (getNbElements() == \old(getNbElements()) + 1);
+	 *
+	 * @throws UncheckedIOException en cas d'erreur d'écriture de la trace
+	 */
+	public void empiler(int e) {
+		super.empiler(e);
+		try {
+			enregistreur.empiler(e);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	/**
+	 * Retrait de l'élement au sommet de la pile (i.e. pop)
+	 *
+	 * @requires !estVide();
+	 * @ensures !estPleine();
+	 * @ensures (getNbElements() == \old(getNbElements()) - 1);
+	 *
+	 * @throws UncheckedIOException en cas d'erreur d'écriture de la trace
+	 */
+	public void depiler() {
+		super.depiler();
+		try {
+			enregistreur.depiler();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Ajout au sommet de la pile d'un enregistrement de deux éléments,
+	 * enregistré comme deux ajouts.
+	 *
+	 * @param a le premier élément à ajouter
+	 * @param b le second élément à ajouter, qui devient le sommet
+	 *
+	 * @requires getNbElements() + 2 <= getNbMaxElements();
+	 * @ensures getSommet() == b;
+	 * @ensures getElement(1) == a;
+	 * @ensures (getNbElements() == \old(getNbElements()) + 2);
+	 *
+	 * @throws UncheckedIOException en cas d'erreur d'écriture de la trace
+	 */
+	public void empilerFrame(int a, int b) {
+		super.empilerFrame(a, b);
+		enregistrerAjouts(new int[] { a, b }, 0, 2);
+	}
+
+	/**
+	 * Ajout au sommet de la pile d'un enregistrement de trois éléments,
+	 * enregistré comme trois ajouts.
+	 *
+	 * @param a le premier élément à ajouter
+	 * @param b le deuxième élément à ajouter
+	 * @param c le troisième élément à ajouter, qui devient le sommet
+	 *
+	 * @requires getNbElements() + 3 <= getNbMaxElements();
+	 * @ensures getSommet() == c;
+	 * @ensures getElement(1) == b;
+	 * @ensures getElement(2) == a;
+	 * @ensures (getNbElements() == \old(getNbElements()) + 3);
+	 *
+	 * @throws UncheckedIOException en cas d'erreur d'écriture de la trace
+	 */
+	public void empilerFrame(int a, int b, int c) {
+		super.empilerFrame(a, b, c);
+		enregistrerAjouts(new int[] { a, b, c }, 0, 3);
+	}
+
+	/**
+	 * Ajout au sommet de la pile des nb éléments du tableau spécifié à partir
+	 * de l'indice debut, enregistré comme nb ajouts.
+	 *
+	 * @param elements le tableau contenant l'enregistrement
+	 * @param debut    l'indice du premier élément à ajouter
+	 * @param nb       le nombre d'éléments à ajouter
+	 *
+	 * @requires elements != null;
+	 * @requires debut >= 0 && nb >= 0 && debut + nb <= elements.length;
+	 * @requires getNbElements() + nb <= getNbMaxElements();
+	 * @ensures (getNbElements() == \old(getNbElements()) + nb);
+	 *
+	 * @throws UncheckedIOException en cas d'erreur d'écriture de la trace
+	 */
+	public void empilerFrame(int[] elements, int debut, int nb) {
+		super.empilerFrame(elements, debut, nb);
+		enregistrerAjouts(elements, debut, nb);
+	}
+
+	/**
+	 * Retrait des nb éléments du sommet de la pile, enregistré comme nb
+	 * retraits.
+	 *
+	 * @param nb le nombre d'éléments à retirer
+	 *
+	 * @requires nb >= 0;
+	 * @requires nb <= getNbElements();
+	 * @ensures (getNbElements() == \old(getNbElements()) - nb);
+	 *
+	 * @throws UncheckedIOException en cas d'erreur d'écriture de la trace
+	 */
+	public void depilerFrame(int nb) {
+		super.depilerFrame(nb);
+		enregistrerRetraits(nb);
+	}
+
+	/**
+	 * Ferme un cadre, enregistré comme autant de retraits que d'éléments
+	 * retirés.
+	 *
+	 * @param marqueur le marqueur renvoyé par {@link #ouvrirFrame()}
+	 *
+	 * @requires marqueur >= 0;
+	 * @requires marqueur <= getNbElements();
+	 * @ensures getNbElements() == marqueur;
+	 *
+	 * @throws UncheckedIOException en cas d'erreur d'écriture de la trace
+	 */
+	public void fermerFrame(int marqueur) {
+		int nbAvant = getNbElements();
+		super.fermerFrame(marqueur);
+		enregistrerRetraits(nbAvant - marqueur);
+	}
+
+	/**
+	 * Restaure l'état de la pile au moment de la pose de la marque spécifiée.
+	 * Le retour est enregistré comme le retrait des éléments situés au-dessus
+	 * du plus long préfixe commun aux deux états, suivi de l'ajout des éléments
+	 * restaurés ; son coût est donc proportionnel au nombre d'éléments de la
+	 * pile.
+	 *
+	 * @param mark l'identifiant de la marque à restaurer
+	 *
+	 * @requires mark >= 0;
+	 * @requires mark < getNbMarks();
+	 * @ensures getNbMarks() == mark;
+	 *
+	 * @throws UncheckedIOException en cas d'erreur d'écriture de la trace
+	 */
+	public void rollbackTo(int mark) {
+		PileInt avant = (PileInt) super.clone();
+		super.rollbackTo(mark);
+		enregistrerDelta(avant.getNbElements(), avant.diff(this));
+	}
+
+	/**
+	 * Applique à cette pile un delta calculé par {@link #diff(PileInt)},
+	 * enregistré comme le retrait des éléments situés au-delà du préfixe
+	 * commun suivi de l'ajout des éléments du suffixe.
+	 *
+	 * @param delta le delta à appliquer
+	 *
+	 * @requires delta != null;
+	 * @requires delta.getLongueurPrefixe() <= getNbElements();
+	 * @requires delta.getNbElementsCible() <= getNbMaxElements();
+	 * @ensures getNbElements() == delta.getNbElementsCible();
+	 *
+	 * @throws UncheckedIOException en cas d'erreur d'écriture de la trace
+	 */
+	public void patch(PileIntDelta delta) {
+		int nbAvant = getNbElements();
+		super.patch(delta);
+		enregistrerDelta(nbAvant, delta);
+	}
+
+	/**
+	 * Renvoie une copie conforme de cette pile. Le clone partage l'enregistreur
+	 * de cette pile : ses opérations seraient mêlées à celles de cette pile
+	 * dans une même trace, qui ne pourrait plus être rejouée. Un clone ne doit
+	 * donc pas être modifié, ou doit être recopié dans une
+	 * <code>PileInt</code> ordinaire.
+	 *
+	 * @return un clone de cette instance.
+	 *
+	 * @also
+	 * @ensures \result != null;
+	 * @ensures \result != this;
+	 * @ensures \result.getClass() == \result.getClass();
+	 * @ensures this.equals(\result);
+	 *
+	 * @pure
+	 */
+	public Object clone() {
+		return super.clone();
+	}
+
+	private void enregistrerDelta(int nbAvant, PileIntDelta delta) {
+		enregistrerRetraits(nbAvant - delta.getLongueurPrefixe());
+		enregistrerAjouts(delta.suffixe, 0, delta.suffixe.length);
+	}
+
+	private void enregistrerAjouts(int[] elements, int debut, int nb) {
+		try {
+			for (int i = debut; i < debut + nb; i++) {
+				enregistreur.empiler(elements[i]);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void enregistrerRetraits(int nb) {
+		try {
+			for (int i = 0; i < nb; i++) {
+				enregistreur.depiler();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
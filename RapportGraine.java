@@ -0,0 +1,56 @@
+/**
+ *
+ */
+package test;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * Extension JUnit qui publie la graine de BaseDataProviders une seule fois par
+ * exécution, quel que soit le nombre de classes de test qui l'utilisent ou
+ * l'ordre (éventuellement parallèle) de leur exécution. L'entrée
+ * <code>test.graine</code> apparaît dans le rapport du lanceur ; elle se
+ * repasse par <code>-Dtest.graine=...</code> pour reproduire l'exécution.
+ *
+ * Avant chaque test, le générateur des méthodes <code>randInt</code>,
+ * <code>randBool</code>, etc. de BaseDataProviders est remplacé, pour le
+ * thread du test, par un générateur dérivé de la graine et de l'identifiant
+ * unique du test : les valeurs tirées par un test ne dépendent pas des autres
+ * tests exécutés en parallèle.
+ *
+ * À déclarer sur chaque classe de test utilisant des données aléatoires par
+ * <code>@ExtendWith(RapportGraine.class)</code>.
+ *
+ * @author Marc Champesme
+ * @version 1.8.0
+ */
+public class RapportGraine implements BeforeAllCallback, BeforeEachCallback, AfterEachCallback {
+	private static final ExtensionContext.Namespace ESPACE = ExtensionContext.Namespace.create(RapportGraine.class);
+
+	public void beforeAll(ExtensionContext context) {
+		// Le magasin de la racine est partagé par toute l'exécution, et
+		// getOrComputeIfAbsent n'évalue la fonction qu'une fois:
+		ExtensionContext racine = context.getRoot();
+		racine.getStore(ESPACE).getOrComputeIfAbsent("graine", cle -> {
+			long graine = BaseDataProviders.getGraine();
+			racine.publishReportEntry("test.graine", Long.toString(graine));
+			return graine;
+		});
+	}
+
+	public void beforeEach(ExtensionContext context) {
+		long id = context.getUniqueId().hashCode();
+		SplittableRandom precedent = BaseDataProviders
+				.setGenerateur(new SplittableRandom(BaseDataProviders.getGraine() ^ id));
+		context.getStore(ESPACE).put("generateur", precedent);
+	}
+
+	public void afterEach(ExtensionContext context) {
+		BaseDataProviders.setGenerateur(context.getStore(ESPACE).get("generateur", SplittableRandom.class));
+	}
+}
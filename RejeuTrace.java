@@ -0,0 +1,163 @@
+package pilesimple.bench;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+import pilesimple.PileInt;
+import pilesimple.TraceInt;
+
+/**
+ * Rejoue hors ligne une trace enregistrée par
+ * <code>EnregistreurTrace</code> contre plusieurs implémentations de pile, et
+ * affiche pour chacune le débit (opérations par seconde) et les percentiles de
+ * latence par opération.
+ *
+ * Le débit est mesuré sur un rejeu sans instrumentation ; les latences sont
+ * mesurées sur un second rejeu où chaque opération est chronométrée.
+ *
+ * Usage : <code>java pilesimple.bench.RejeuTrace fichierTrace [nbRejeux]</code>
+ *
+ * @author Marc Champesme
+ * @version 1.8.0
+ */
+public class RejeuTrace {
+	private static final double[] PERCENTILES = { 50, 90, 99, 99.9, 99.99, 100 };
+
+	/**
+	 * Les opérations d'une pile nécessaires au rejeu d'une trace.
+	 */
+	public interface Cible {
+		void empiler(int e);
+
+		void depiler();
+
+		int getSommet();
+	}
+
+	/**
+	 * @param p une pile
+	 * @return la pile spécifiée vue comme cible d'un rejeu
+	 */
+	public static Cible de(PileInt p) {
+		return new Cible() {
+			public void empiler(int e) {
+				p.empiler(e);
+			}
+
+			public void depiler() {
+				p.depiler();
+			}
+
+			public int getSommet() {
+				return p.getSommet();
+			}
+		};
+	}
+
+	/**
+	 * @param d une pile du JDK
+	 * @return la pile spécifiée vue comme cible d'un rejeu
+	 */
+	public static Cible de(ArrayDeque<Integer> d) {
+		return new Cible() {
+			public void empiler(int e) {
+				d.push(e);
+			}
+
+			public void depiler() {
+				d.pop();
+			}
+
+			public int getSommet() {
+				return d.peek();
+			}
+		};
+	}
+
+	/**
+	 * Rejoue la trace spécifiée sur la cible spécifiée.
+	 *
+	 * @param trace la trace à rejouer
+	 * @param cible la pile cible, de capacité suffisante
+	 * @return une somme de contrôle des sommets consultés
+	 */
+	public static long rejouer(TraceInt trace, Cible cible) {
+		long controle = 0;
+		for (int i = 0; i < trace.getNbOperations(); i++) {
+			controle += executer(trace.getOperation(i), cible);
+		}
+		return controle;
+	}
+
+	/**
+	 * Rejoue la trace spécifiée en chronométrant chaque opération.
+	 *
+	 * @param trace    la trace à rejouer
+	 * @param cible    la pile cible, de capacité suffisante
+	 * @param latences le tableau recevant la durée en nanosecondes de chaque
+	 *                 opération
+	 * @return une somme de contrôle des sommets consultés
+	 *
+	 * @requires latences.length >= trace.getNbOperations();
+	 */
+	public static long rejouer(TraceInt trace, Cible cible, long[] latences) {
+		long controle = 0;
+		for (int i = 0; i < trace.getNbOperations(); i++) {
+			long debut = System.nanoTime();
+			controle += executer(trace.getOperation(i), cible);
+			latences[i] = System.nanoTime() - debut;
+		}
+		return controle;
+	}
+
+	private static int executer(long op, Cible cible) {
+		switch (TraceInt.code(op)) {
+		case TraceInt.EMPILER:
+			cible.empiler(TraceInt.valeur(op));
+			return 0;
+		case TraceInt.DEPILER:
+			cible.depiler();
+			return 0;
+		default:
+			return cible.getSommet();
+		}
+	}
+
+	private static void mesurer(String nom, TraceInt trace, IntFunction<Cible> fabrique, int nbRejeux) {
+		long meilleur = Long.MAX_VALUE;
+		for (int i = 0; i < nbRejeux; i++) {
+			Cible cible = fabrique.apply(trace.getNbMaxElements());
+			long debut = System.nanoTime();
+			rejouer(trace, cible);
+			meilleur = Math.min(meilleur, System.nanoTime() - debut);
+		}
+		long[] latences = new long[trace.getNbOperations()];
+		rejouer(trace, fabrique.apply(trace.getNbMaxElements()), latences);
+		Arrays.sort(latences);
+		StringBuilder str = new StringBuilder();
+		str.append(String.format("%-12s %12.0f ops/s  latence (ns):", nom,
+				trace.getNbOperations() * 1e9 / Math.max(1, meilleur)));
+		for (double p : PERCENTILES) {
+			int rang = (int) Math.min(latences.length - 1, Math.ceil(p / 100 * latences.length) - 1);
+			str.append(String.format(" p%s=%d", p, latences.length == 0 ? 0 : latences[Math.max(0, rang)]));
+		}
+		System.out.println(str);
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: java pilesimple.bench.RejeuTrace fichierTrace [nbRejeux]");
+			System.exit(2);
+		}
+		Path fichier = Paths.get(args[0]);
+		int nbRejeux = (args.length > 1 ? Integer.parseInt(args[1]) : 10);
+		TraceInt trace = TraceInt.lire(fichier);
+		System.out.println(trace);
+		mesurer("PileInt", trace, n -> de(new PileInt(n)), nbRejeux);
+		mesurer("ArrayDeque", trace, n -> de(new ArrayDeque<Integer>(n)), nbRejeux);
+	}
+}
@@ -0,0 +1,230 @@
+package pilesimple;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.stream.LongStream;
+
+/**
+ * Une trace d'opérations (empiler, depiler, getSommet) effectuées sur une pile
+ * d'entiers, telle qu'enregistrée par {@link EnregistreurTrace}.
+ *
+ * Chaque opération est codée sur un <code>long</code> : le code de
+ * l'opération dans les 32 bits de poids fort et l'élément empilé dans les 32
+ * bits de poids faible.
+ *
+ * Format binaire d'une trace :
+ *
+ * <pre>
+ * int      MAGIQUE
+ * int      capacité de la pile tracée
+ * puis pour chaque opération :
+ * byte     code de l'opération
+ * varint   élément empilé (codage zigzag), pour EMPILER seulement
+ * </pre>
+ *
+ * Les instances sont immuables.
+ *
+ * @author Marc Champesme
+ * @version 1.8.0
+ */
+public final class TraceInt {
+	public static final int EMPILER = 0;
+	public static final int DEPILER = 1;
+	public static final int SOMMET = 2;
+
+	static final int MAGIQUE = 0x50494C54;
+
+	private final int nbMaxElements;
+	private final long[] operations;
+
+	private TraceInt(int nbMaxElements, long[] operations) {
+		this.nbMaxElements = nbMaxElements;
+		this.operations = operations;
+	}
+
+	/**
+	 * Consultation de la capacité de la pile tracée.
+	 *
+	 * @return capacité nécessaire pour rejouer cette trace
+	 *
+	 * @pure
+	 */
+	public int getNbMaxElements() {
+		return nbMaxElements;
+	}
+
+	/**
+	 * Consultation du nombre d'opérations de la trace.
+	 *
+	 * @return nombre d'opérations
+	 *
+	 * @pure
+	 */
+	public int getNbOperations() {
+		return operations.length;
+	}
+
+	/**
+	 * Consultation d'une opération de la trace.
+	 *
+	 * @param i le rang de l'opération
+	 * @return l'opération codée de rang i
+	 *
+	 * @requires i >= 0 && i < getNbOperations();
+	 *
+	 * @pure
+	 */
+	public long getOperation(int i) {
+		return operations[i];
+	}
+
+	/**
+	 * @return le flot des opérations de la trace
+	 *
+	 * @pure
+	 */
+	public LongStream operations() {
+		return Arrays.stream(operations);
+	}
+
+	/**
+	 * @param operation une opération codée
+	 * @return le code de l'opération: EMPILER, DEPILER ou SOMMET
+	 */
+	public static int code(long operation) {
+		return (int) (operation >>> 32);
+	}
+
+	/**
+	 * @param operation une opération codée
+	 * @return l'élément à empiler si l'opération est EMPILER
+	 */
+	public static int valeur(long operation) {
+		return (int) operation;
+	}
+
+	/**
+	 * @param code   le code de l'opération
+	 * @param valeur l'élément à empiler, ignoré pour les autres opérations
+	 * @return l'opération codée
+	 */
+	public static long operation(int code, int valeur) {
+		return ((long) code << 32) | (valeur & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Lit entièrement une trace.
+	 *
+	 * @param in le flux contenant la trace
+	 * @return la trace lue
+	 *
+	 * @requires in != null;
+	 * @ensures \result != null;
+	 *
+	 * @throws IOException en cas d'erreur de lecture ou de format
+	 */
+	public static TraceInt lire(InputStream in) throws IOException {
+		DataInputStream data = new DataInputStream(in);
+		if (data.readInt() != MAGIQUE) {
+			throw new IOException("Ce flux ne contient pas une trace");
+		}
+		int nbMaxElements = data.readInt();
+		long[] operations = new long[1024];
+		int nb = 0;
+		int code;
+		while ((code = data.read()) >= 0) {
+			if (nb == operations.length) {
+				operations = Arrays.copyOf(operations, 2 * nb);
+			}
+			switch (code) {
+			case EMPILER:
+				operations[nb++] = operation(EMPILER, lireVarInt(data));
+				break;
+			case DEPILER:
+			case SOMMET:
+				operations[nb++] = operation(code, 0);
+				break;
+			default:
+				throw new IOException("Opération inconnue: " + code);
+			}
+		}
+		return new TraceInt(nbMaxElements, Arrays.copyOf(operations, nb));
+	}
+
+	/**
+	 * Lit entièrement une trace depuis un fichier.
+	 *
+	 * @param fichier le fichier contenant la trace
+	 * @return la trace lue
+	 *
+	 * @throws IOException en cas d'erreur de lecture ou de format
+	 */
+	public static TraceInt lire(Path fichier) throws IOException {
+		try (InputStream in = new BufferedInputStream(Files.newInputStream(fichier))) {
+			return lire(in);
+		}
+	}
+
+	/**
+	 * Écrit dans un fichier la trace formée des opérations spécifiées, par
+	 * exemple pour enregistrer une trace synthétique.
+	 *
+	 * @param fichier       le fichier à créer
+	 * @param nbMaxElements la capacité nécessaire pour rejouer la trace
+	 * @param operations    les opérations codées
+	 *
+	 * @throws IOException en cas d'erreur d'écriture
+	 */
+	public static void ecrire(Path fichier, int nbMaxElements, LongStream operations) throws IOException {
+		try (EnregistreurTrace enr = new EnregistreurTrace(Files.newOutputStream(fichier), nbMaxElements)) {
+			PrimitiveIterator.OfLong it = operations.iterator();
+			while (it.hasNext()) {
+				enr.enregistrer(it.nextLong());
+			}
+		}
+	}
+
+	static void ecrireVarInt(DataOutputStream out, int valeur) throws IOException {
+		int zigzag = (valeur << 1) ^ (valeur >> 31);
+		while ((zigzag & ~0x7F) != 0) {
+			out.write((zigzag & 0x7F) | 0x80);
+			zigzag >>>= 7;
+		}
+		out.write(zigzag);
+	}
+
+	private static int lireVarInt(DataInputStream in) throws IOException {
+		int zigzag = 0;
+		for (int decalage = 0; decalage < 35; decalage += 7) {
+			int b = in.read();
+			if (b < 0) {
+				throw new EOFException("Trace tronquée");
+			}
+			zigzag |= (b & 0x7F) << decalage;
+			if ((b & 0x80) == 0) {
+				return (zigzag >>> 1) ^ -(zigzag & 1);
+			}
+		}
+		throw new IOException("Entier mal codé");
+	}
+
+	/**
+	 * Renvoie une représentation de cette instance sous forme de chaîne de
+	 * caractère.
+	 *
+	 * @return une chaîne de caractères représentant cette instance.
+	 *
+	 * @pure
+	 */
+	public String toString() {
+		return "TraceInt(" + operations.length + " opérations, capacité " + nbMaxElements + ")";
+	}
+}
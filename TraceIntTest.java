@@ -0,0 +1,140 @@
+/**
+ *
+ */
+package pilesimple.test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import test.BaseDataProviders;
+import test.RapportGraine;
+
+import pilesimple.EnregistreurTrace;
+import pilesimple.PileInt;
+import pilesimple.PileIntTracee;
+import pilesimple.TraceInt;
+import pilesimple.bench.RejeuTrace;
+
+/**
+ * Tests unitaires pour les classes TraceInt, EnregistreurTrace et
+ * PileIntTracee.
+ *
+ * @author Marc Champesme
+ * @version 1.8.0
+ *
+ */
+@ExtendWith(RapportGraine.class)
+class TraceIntTest {
+	public static Stream<LongStream> traceProvider() {
+		return BaseDataProviders.traceProvider(10, 5000);
+	}
+
+	/**
+	 * Une trace écrite puis relue est identique, et son rejeu sur une
+	 * PileIntTracee produit à nouveau la même trace.
+	 */
+	@ParameterizedTest
+	@MethodSource("traceProvider")
+	public final void testEnregistrementRejeu(LongStream operations, @TempDir Path repertoire) throws IOException {
+		long[] attendu = operations.toArray();
+		int capacite = 5000;
+		Path fichier = repertoire.resolve("trace.bin");
+		TraceInt.ecrire(fichier, capacite, LongStream.of(attendu));
+		TraceInt trace = TraceInt.lire(fichier);
+		assertEquals(capacite, trace.getNbMaxElements());
+		assertArrayEquals(attendu, trace.operations().toArray());
+
+		ByteArrayOutputStream octets = new ByteArrayOutputStream();
+		PileInt reference = new PileInt(capacite);
+		long controleReference = RejeuTrace.rejouer(trace, RejeuTrace.de(reference));
+		long controleTracee;
+		PileIntTracee tracee;
+		try (EnregistreurTrace enr = new EnregistreurTrace(octets, capacite)) {
+			tracee = new PileIntTracee(capacite, enr);
+			controleTracee = RejeuTrace.rejouer(trace, RejeuTrace.de(tracee));
+		}
+		assertEquals(controleReference, controleTracee);
+		assertEquals(reference, tracee);
+		TraceInt retracee = TraceInt.lire(new ByteArrayInputStream(octets.toByteArray()));
+		assertArrayEquals(attendu, retracee.operations().toArray());
+	}
+
+	/**
+	 * Les opérations par cadres, par delta et par marques sont enregistrées de
+	 * sorte que le rejeu de la trace reproduise la pile tracée.
+	 */
+	@Test
+	public final void testOperationsComposees() throws IOException {
+		int capacite = 20;
+		ByteArrayOutputStream octets = new ByteArrayOutputStream();
+		PileIntTracee tracee;
+		try (EnregistreurTrace enr = new EnregistreurTrace(octets, capacite)) {
+			tracee = new PileIntTracee(capacite, enr);
+			tracee.empilerFrame(1, 2);
+			tracee.empilerFrame(3, 4, 5);
+			tracee.empilerFrame(new int[] { 6, 7, 8, 9 }, 1, 2);
+			tracee.depilerFrame(1);
+			int marqueur = tracee.ouvrirFrame();
+			tracee.empiler(10);
+			tracee.empiler(11);
+			tracee.fermerFrame(marqueur);
+			int mark = tracee.mark();
+			tracee.depiler();
+			tracee.depiler();
+			tracee.empiler(12);
+			tracee.rollbackTo(mark);
+			// Le clone d'une pile tracée partage son enregistreur:
+			PileInt cible = new PileInt(capacite);
+			cible.patch(cible.diff(tracee));
+			cible.depiler();
+			cible.empiler(13);
+			cible.empiler(14);
+			tracee.patch(tracee.diff(cible));
+			assertEquals(cible, tracee);
+		}
+		PileInt rejouee = new PileInt(capacite);
+		RejeuTrace.rejouer(TraceInt.lire(new ByteArrayInputStream(octets.toByteArray())), RejeuTrace.de(rejouee));
+		assertEquals(tracee, rejouee);
+	}
+
+	/**
+	 * Les valeurs extrêmes sont correctement codées.
+	 */
+	@Test
+	public final void testValeursExtremes() throws IOException {
+		long[] attendu = { TraceInt.operation(TraceInt.EMPILER, Integer.MIN_VALUE),
+				TraceInt.operation(TraceInt.EMPILER, Integer.MAX_VALUE), TraceInt.operation(TraceInt.EMPILER, -1),
+				TraceInt.operation(TraceInt.EMPILER, 0), TraceInt.operation(TraceInt.SOMMET, 0),
+				TraceInt.operation(TraceInt.DEPILER, 0) };
+		ByteArrayOutputStream octets = new ByteArrayOutputStream();
+		try (EnregistreurTrace enr = new EnregistreurTrace(octets, 4)) {
+			for (long op : attendu) {
+				enr.enregistrer(op);
+			}
+		}
+		TraceInt trace = TraceInt.lire(new ByteArrayInputStream(octets.toByteArray()));
+		assertArrayEquals(attendu, trace.operations().toArray());
+	}
+
+	/**
+	 * Un flux qui ne commence pas par l'en-tête d'une trace est refusé.
+	 */
+	@Test
+	public final void testFormatInvalide() {
+		assertThrows(IOException.class, () -> TraceInt.lire(new ByteArrayInputStream(new byte[8])));
+	}
+}
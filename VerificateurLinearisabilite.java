@@ -0,0 +1,304 @@
+/**
+ *
+ */
+package pilesimple.test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CyclicBarrier;
+
+import pilesimple.PileInt;
+
+/**
+ * Exécution d'histoires concurrentes aléatoires sur une pile ou une file et
+ * vérification de leur linéarisabilité par rapport à un modèle séquentiel
+ * représenté par une <code>PileInt</code>.
+ *
+ * Une histoire est linéarisable s'il existe un ordre total de ses opérations,
+ * compatible avec leur ordre temporel (une opération terminée avant
+ * l'invocation d'une autre la précède), dans lequel chaque résultat observé
+ * est celui que donnerait une <code>PileInt</code> de même capacité. La
+ * recherche de cet ordre est exhaustive (algorithme de Wing et Gong) ; les
+ * états déjà explorés, i.e. les couples (opérations linéarisées, contenu du
+ * modèle), sont mémorisés et le modèle est restauré par
+ * {@link PileInt#rollbackTo(int)} lors des retours arrière.
+ *
+ * Pour une file, l'ajout se fait au sommet du modèle et le retrait à sa base,
+ * par {@link PileInt#patch(pilesimple.PileIntDelta)} : ce retrait est lui
+ * aussi annulé par <code>rollbackTo</code>.
+ *
+ * @author Marc Champesme
+ * @version 1.8.0
+ *
+ */
+final class VerificateurLinearisabilite {
+	/**
+	 * Résultat de depiler lorsque la pile est vide.
+	 */
+	static final long VIDE = Long.MIN_VALUE;
+
+	/**
+	 * Nombre maximal de tentatives d'une opération échouée, dans une histoire à
+	 * un producteur et un consommateur.
+	 */
+	static final int NB_ESSAIS = 10_000;
+
+	/**
+	 * Une pile (ou une file) d'entiers concurrente dont les opérations échouent
+	 * au lieu d'exiger une précondition.
+	 */
+	interface PileConcurrente {
+		/**
+		 * @return false si la pile était pleine
+		 */
+		boolean empiler(int e);
+
+		/**
+		 * @return l'élément retiré, ou VIDE si la pile était vide
+		 */
+		long depiler();
+	}
+
+	/**
+	 * Une opération terminée d'une histoire.
+	 */
+	static final class Operation {
+		final boolean empiler;
+		final int valeur;
+		final long resultat;
+		final long invocation;
+		final long reponse;
+
+		Operation(boolean empiler, int valeur, long resultat, long invocation, long reponse) {
+			this.empiler = empiler;
+			this.valeur = valeur;
+			this.resultat = resultat;
+			this.invocation = invocation;
+			this.reponse = reponse;
+		}
+
+		public String toString() {
+			return (empiler ? "empiler(" + valeur + ")=" + (resultat != 0) : "depiler()=" + resultat) + "@["
+					+ invocation + "," + reponse + "]";
+		}
+	}
+
+	private VerificateurLinearisabilite() {
+	}
+
+	/**
+	 * Exécute une histoire aléatoire : nbThreads threads, libérés ensemble,
+	 * effectuent chacun nbOperations ajouts ou retraits. Les éléments empilés
+	 * sont tous distincts.
+	 *
+	 * @requires nbThreads > 0;
+	 * @requires nbThreads * nbOperations <= 64;
+	 *
+	 * @return les opérations de l'histoire
+	 *
+	 * @throws AssertionError si une opération a levé une exception
+	 */
+	static List<Operation> executer(PileConcurrente pile, int nbThreads, int nbOperations, long graine)
+			throws InterruptedException {
+		return executer(pile, nbThreads, nbOperations, graine, false);
+	}
+
+	/**
+	 * Exécute une histoire à un producteur et un consommateur : deux threads,
+	 * libérés ensemble, effectuent l'un nbOperations ajouts, l'autre
+	 * nbOperations retraits. Les éléments empilés sont tous distincts.
+	 *
+	 * Un ajout refusé (pile pleine) ou un retrait sur pile vide est retenté,
+	 * jusqu'à NB_ESSAIS fois, afin que les deux threads restent actifs en même
+	 * temps. Les tentatives échouées, sans effet sur la pile, ne sont pas
+	 * enregistrées : retirer d'une histoire linéarisable des opérations sans
+	 * effet la laisse linéarisable.
+	 *
+	 * @requires nbOperations <= 32;
+	 *
+	 * @return les opérations de l'histoire
+	 *
+	 * @throws AssertionError si une opération a levé une exception
+	 */
+	static List<Operation> executerProducteurConsommateur(PileConcurrente pile, int nbOperations, long graine)
+			throws InterruptedException {
+		return executer(pile, 2, nbOperations, graine, true);
+	}
+
+	private static List<Operation> executer(PileConcurrente pile, int nbThreads, int nbOperations, long graine,
+			boolean producteurConsommateur) throws InterruptedException {
+		List<List<Operation>> parThread = new ArrayList<List<Operation>>();
+		CyclicBarrier depart = new CyclicBarrier(nbThreads);
+		Thread[] threads = new Thread[nbThreads];
+		Throwable[] erreurs = new Throwable[nbThreads];
+		SplittableRandom racine = new SplittableRandom(graine);
+		for (int t = 0; t < nbThreads; t++) {
+			List<Operation> ops = new ArrayList<Operation>(nbOperations);
+			parThread.add(ops);
+			SplittableRandom rand = racine.split();
+			int premiereValeur = t * nbOperations;
+			// Le thread 0 est le producteur, le thread 1 le consommateur:
+			boolean producteur = (t == 0);
+			threads[t] = new Thread(() -> {
+				try {
+					depart.await();
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+				for (int i = 0; i < nbOperations; i++) {
+					boolean empiler = (producteurConsommateur ? producteur : rand.nextBoolean());
+					for (int essai = 0;; essai++) {
+						long invocation = System.nanoTime();
+						Operation op;
+						if (empiler) {
+							int valeur = premiereValeur + i;
+							boolean ok = pile.empiler(valeur);
+							op = new Operation(true, valeur, ok ? 1 : 0, invocation, System.nanoTime());
+						} else {
+							long resultat = pile.depiler();
+							op = new Operation(false, 0, resultat, invocation, System.nanoTime());
+						}
+						boolean echec = (empiler ? op.resultat == 0 : op.resultat == VIDE);
+						if (!producteurConsommateur || !echec || essai == NB_ESSAIS) {
+							ops.add(op);
+							break;
+						}
+						Thread.yield();
+					}
+				}
+			});
+			int numero = t;
+			threads[t].setUncaughtExceptionHandler((th, e) -> erreurs[numero] = e);
+			threads[t].start();
+		}
+		List<Operation> histoire = new ArrayList<Operation>();
+		for (int t = 0; t < nbThreads; t++) {
+			threads[t].join();
+			if (erreurs[t] != null) {
+				throw new AssertionError("Exception dans le thread " + t, erreurs[t]);
+			}
+			histoire.addAll(parThread.get(t));
+		}
+		return histoire;
+	}
+
+	/**
+	 * @requires histoire.size() <= 64;
+	 *
+	 * @param histoire      les opérations d'une histoire
+	 * @param nbMaxElements la capacité de la pile
+	 * @return true si l'histoire est linéarisable pour une pile initialement vide
+	 *         de la capacité spécifiée
+	 */
+	static boolean estLinearisable(List<Operation> histoire, int nbMaxElements) {
+		return estLinearisable(histoire, nbMaxElements, false);
+	}
+
+	/**
+	 * @requires histoire.size() <= 64;
+	 *
+	 * @param histoire      les opérations d'une histoire, les ajouts et
+	 *                      retraits étant ceux d'une file
+	 * @param nbMaxElements la capacité de la file
+	 * @return true si l'histoire est linéarisable pour une file initialement
+	 *         vide de la capacité spécifiée
+	 */
+	static boolean estLinearisableFile(List<Operation> histoire, int nbMaxElements) {
+		return estLinearisable(histoire, nbMaxElements, true);
+	}
+
+	private static boolean estLinearisable(List<Operation> histoire, int nbMaxElements, boolean file) {
+		Operation[] ops = histoire.toArray(new Operation[0]);
+		long toutes = (ops.length == 64 ? -1L : (1L << ops.length) - 1);
+		return chercher(ops, toutes, 0L, new PileInt(nbMaxElements), file, new HashSet<Etat>());
+	}
+
+	private static boolean chercher(Operation[] ops, long toutes, long faites, PileInt modele, boolean file,
+			Set<Etat> vus) {
+		if (faites == toutes) {
+			return true;
+		}
+		if (!vus.add(new Etat(faites, (PileInt) modele.clone()))) {
+			return false;
+		}
+		long premiereReponse = Long.MAX_VALUE;
+		for (int i = 0; i < ops.length; i++) {
+			if ((faites & (1L << i)) == 0) {
+				premiereReponse = Math.min(premiereReponse, ops[i].reponse);
+			}
+		}
+		for (int i = 0; i < ops.length; i++) {
+			// Candidates: les opérations invoquées avant la fin de toute autre
+			// opération restante.
+			if ((faites & (1L << i)) != 0 || ops[i].invocation > premiereReponse) {
+				continue;
+			}
+			int marque = modele.mark();
+			if (appliquer(ops[i], modele, file) && chercher(ops, toutes, faites | (1L << i), modele, file, vus)) {
+				return true;
+			}
+			modele.rollbackTo(marque);
+		}
+		return false;
+	}
+
+	private static boolean appliquer(Operation op, PileInt modele, boolean file) {
+		if (op.empiler) {
+			if (modele.estPleine()) {
+				return op.resultat == 0;
+			}
+			modele.empiler(op.valeur);
+			return op.resultat != 0;
+		}
+		if (modele.estVide()) {
+			return op.resultat == VIDE;
+		}
+		if (file) {
+			return op.resultat == retirerBase(modele);
+		}
+		int sommet = modele.getSommet();
+		modele.depiler();
+		return op.resultat == sommet;
+	}
+
+	/**
+	 * Retire l'élément situé à la base du modèle (la tête de file) par un
+	 * patch, que rollbackTo sait annuler.
+	 */
+	private static int retirerBase(PileInt modele) {
+		int n = modele.getNbElements();
+		int base = modele.getElement(n - 1);
+		PileInt suite = new PileInt(modele.getNbMaxElements());
+		for (int profondeur = n - 2; profondeur >= 0; profondeur--) {
+			suite.empiler(modele.getElement(profondeur));
+		}
+		modele.patch(modele.diff(suite));
+		return base;
+	}
+
+	private static final class Etat {
+		private final long faites;
+		private final PileInt modele;
+
+		Etat(long faites, PileInt modele) {
+			this.faites = faites;
+			this.modele = modele;
+		}
+
+		public boolean equals(Object o) {
+			if (!(o instanceof Etat)) {
+				return false;
+			}
+			Etat e = (Etat) o;
+			return faites == e.faites && modele.equals(e.modele);
+		}
+
+		public int hashCode() {
+			return Objects.hash(faites, modele);
+		}
+	}
+}